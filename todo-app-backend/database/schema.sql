@@ -15,12 +15,16 @@ USE todoapp;
 -- ===================================
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT 'ユーザーID（主キー）',
-    username VARCHAR(50) NOT NULL UNIQUE COMMENT 'ユーザー名（ログイン用、一意）',
-    email VARCHAR(100) NOT NULL UNIQUE COMMENT 'メールアドレス（一意）',
+    username VARCHAR(50) NOT NULL COMMENT 'ユーザー名（ログイン用、一意）',
+    email VARCHAR(100) NOT NULL COMMENT 'メールアドレス（一意）',
     password VARCHAR(255) NOT NULL COMMENT 'パスワード（BCryptハッシュ化）',
     created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) COMMENT '作成日時',
     updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6) COMMENT '更新日時',
     
+    -- 登録時の重複判定に使用（アプリは制約名でエラーメッセージを切り替える）
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    
     INDEX idx_username (username),
     INDEX idx_email (email),
     INDEX idx_created_at (created_at)
@@ -48,9 +52,82 @@ CREATE TABLE IF NOT EXISTS todos (
     INDEX idx_completed (completed),
     INDEX idx_created_at (created_at),
     INDEX idx_user_completed (user_id, completed),
-    INDEX idx_user_created (user_id, created_at DESC)
+    INDEX idx_user_created (user_id, created_at DESC),
+    INDEX idx_user_updated (user_id, updated_at),
+    
+    -- 全文検索（todo.search.type=mysql）用。日本語を分かち書きせずに検索できるよう ngram パーサーを使う
+    FULLTEXT INDEX ft_todos_title_description (title, description) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Todo情報テーブル';
 
+-- 既存のデータベースに全文検索のインデックスを追加する場合
+-- ALTER TABLE todos ADD FULLTEXT INDEX ft_todos_title_description (title, description) WITH PARSER ngram;
+
+-- ===================================
+-- テーブル: user_todo_versions
+-- ユーザーごとのTodo変更バージョン（ETag・条件付きGET用）
+-- ===================================
+CREATE TABLE IF NOT EXISTS user_todo_versions (
+    user_id BIGINT PRIMARY KEY COMMENT 'ユーザーID（主キー）',
+    version BIGINT NOT NULL COMMENT '変更バージョン（Todoを書き込むたびに1増える）',
+    
+    CONSTRAINT fk_user_todo_versions_user FOREIGN KEY (user_id)
+        REFERENCES users(id)
+        ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Todo変更バージョンテーブル';
+
+-- ===================================
+-- テーブル: todo_tombstones
+-- 削除されたTodoの記録（差分同期用、保持期間を過ぎたものは定期的に削除）
+-- ===================================
+CREATE TABLE IF NOT EXISTS todo_tombstones (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT 'ID（主キー）',
+    todo_id BIGINT NOT NULL COMMENT '削除されたTodoのID',
+    user_id BIGINT NOT NULL COMMENT 'ユーザーID（外部キー）',
+    deleted_at DATETIME(6) NOT NULL COMMENT '削除日時',
+    
+    CONSTRAINT fk_todo_tombstones_user FOREIGN KEY (user_id)
+        REFERENCES users(id)
+        ON DELETE CASCADE,
+    
+    INDEX idx_tombstone_user_deleted (user_id, deleted_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Todo削除記録テーブル';
+
+-- ===================================
+-- テーブル: user_todo_stats
+-- ユーザーごとのTodo件数（書き込み時に差分を加算、定期的に照合）
+-- ===================================
+CREATE TABLE IF NOT EXISTS user_todo_stats (
+    user_id BIGINT PRIMARY KEY COMMENT 'ユーザーID（主キー、外部キー）',
+    total BIGINT NOT NULL COMMENT '全件数',
+    completed BIGINT NOT NULL COMMENT '完了件数',
+    created_today BIGINT NOT NULL COMMENT 'stats_date に作成された件数',
+    stats_date DATE NOT NULL COMMENT 'created_today の対象日',
+    
+    CONSTRAINT fk_user_todo_stats_user FOREIGN KEY (user_id)
+        REFERENCES users(id)
+        ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Todo件数テーブル';
+
+-- ===================================
+-- テーブル: revoked_tokens
+-- 失効させたトークン（有効期限を過ぎたものは定期的に削除）
+-- ===================================
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT 'ID（主キー）',
+    token_id VARCHAR(64) NOT NULL COMMENT 'トークンID（jti）',
+    user_id BIGINT NOT NULL COMMENT 'ユーザーID（外部キー）',
+    expires_at DATETIME(6) NOT NULL COMMENT 'トークンの有効期限',
+    revoked_at DATETIME(6) NOT NULL COMMENT '失効日時',
+    
+    CONSTRAINT uk_revoked_tokens_token_id UNIQUE (token_id),
+    CONSTRAINT fk_revoked_tokens_user FOREIGN KEY (user_id)
+        REFERENCES users(id)
+        ON DELETE CASCADE,
+    
+    INDEX idx_revoked_revoked_at (revoked_at),
+    INDEX idx_revoked_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='失効トークンテーブル';
+
 -- ===================================
 -- サンプルデータの投入
 -- ===================================
@@ -62,3 +139,7 @@ CREATE TABLE IF NOT EXISTS todos (
 SHOW TABLES;
 DESCRIBE users;
 DESCRIBE todos;
+DESCRIBE user_todo_versions;
+DESCRIBE todo_tombstones;
+DESCRIBE user_todo_stats;
+DESCRIBE revoked_tokens;
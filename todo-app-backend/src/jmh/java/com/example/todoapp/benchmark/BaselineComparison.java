@@ -0,0 +1,145 @@
+package com.example.todoapp.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// JMHの結果（-rf json）をベースラインと比較し、閾値を超えて悪化したベンチマークがあれば失敗する
+// 測定のばらつきで失敗しないよう、悪化と判定するのは99.9%信頼区間（scoreConfidence）が重ならない場合だけにする
+// （ばらつきの大きいベンチマークは閾値を超えても失敗せず、(noisy) と表示する）
+// 更新を指定した場合は結果をベースラインに書き込む（同じベンチマークのみ置き換え）
+// ベースラインがない場合は、比較せずに通ってしまわないよう失敗する（作成するには更新を指定する）
+// 使い方: BaselineComparison <結果> <ベースライン> <閾値（0.10 = 10%）> <ベースラインを更新するか>
+public class BaselineComparison {
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    public static void main(String[] args) throws IOException {
+        Path resultPath = Path.of(args[0]);
+        Path baselinePath = Path.of(args[1]);
+        double threshold = Double.parseDouble(args[2]);
+        boolean updateBaseline = Boolean.parseBoolean(args[3]);
+        
+        Map<String, JsonNode> results = read(resultPath);
+        
+        if (!updateBaseline && !Files.exists(baselinePath)) {
+            System.out.printf("ベースラインがありません: %s%n", baselinePath);
+            System.out.println("比較に使うマシンで -Djmh.update-baseline=true を指定して実行し、作成したベースラインをコミットしてください");
+            System.exit(1);
+        }
+        
+        if (updateBaseline) {
+            Map<String, JsonNode> baseline = Files.exists(baselinePath) ? read(baselinePath) : new LinkedHashMap<>();
+            baseline.putAll(results);
+            write(baselinePath, baseline);
+            System.out.printf("ベースラインを更新しました: %s（%d件）%n", baselinePath, results.size());
+            return;
+        }
+        
+        Map<String, JsonNode> baseline = read(baselinePath);
+        List<String> regressions = new ArrayList<>();
+        
+        System.out.printf("%-90s %14s %14s %9s %9s%n", "Benchmark", "Baseline", "Current", "Change", "Error");
+        for (Map.Entry<String, JsonNode> entry : results.entrySet()) {
+            JsonNode current = entry.getValue().get("primaryMetric");
+            JsonNode previous = baseline.containsKey(entry.getKey())
+                    ? baseline.get(entry.getKey()).get("primaryMetric")
+                    : null;
+            String unit = current.get("scoreUnit").asText();
+            if (previous == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", current.get("score").asDouble(), "new", unit);
+                continue;
+            }
+            
+            double before = previous.get("score").asDouble();
+            double after = current.get("score").asDouble();
+            // スループット（thrpt）は大きいほど、それ以外（時間）は小さいほど良い
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().get("mode").asText());
+            double worse = higherIsBetter ? (before - after) / before : (after - before) / before;
+            boolean significant = !overlaps(previous, current);
+            boolean regressed = worse > threshold && significant;
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+            String mark = regressed ? "  << REGRESSION" : worse > threshold ? "  (noisy)" : "";
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %8.1f%%  %s%s%n",
+                    entry.getKey(), before, after, (after - before) / before * 100,
+                    relativeError(previous, current) * 100, unit, mark);
+        }
+        
+        if (!regressions.isEmpty()) {
+            System.out.printf("%d件のベンチマークがベースラインから %.0f%% 以上悪化しました（信頼区間が重ならないもの）:%n",
+                    regressions.size(), threshold * 100);
+            regressions.forEach(name -> System.out.println("  " + name));
+            System.exit(1);
+        }
+        System.out.println("ベースラインからの悪化はありません");
+    }
+    
+    // 信頼区間が重なるか（反復が1回で区間がない場合は重ならないものとして、閾値だけで判定する）
+    private static boolean overlaps(JsonNode previous, JsonNode current) {
+        double[] a = confidence(previous);
+        double[] b = confidence(current);
+        if (a == null || b == null) {
+            return false;
+        }
+        return a[0] <= b[1] && b[0] <= a[1];
+    }
+    
+    private static double[] confidence(JsonNode metric) {
+        JsonNode interval = metric.get("scoreConfidence");
+        if (interval == null || interval.size() != 2) {
+            return null;
+        }
+        double low = interval.get(0).asDouble();
+        double high = interval.get(1).asDouble();
+        return Double.isNaN(low) || Double.isNaN(high) ? null : new double[]{low, high};
+    }
+    
+    // ベースラインと今回の誤差（scoreError）のうち大きい方の、スコアに対する割合
+    private static double relativeError(JsonNode previous, JsonNode current) {
+        return Math.max(
+                previous.get("scoreError").asDouble() / previous.get("score").asDouble(),
+                current.get("scoreError").asDouble() / current.get("score").asDouble()
+        );
+    }
+    
+    // ベンチマーク名・モード・パラメータをキーにする
+    private static Map<String, JsonNode> read(Path path) throws IOException {
+        Map<String, JsonNode> entries = new LinkedHashMap<>();
+        for (JsonNode node : objectMapper.readTree(path.toFile())) {
+            entries.put(key(node), node);
+        }
+        return entries;
+    }
+    
+    private static void write(Path path, Map<String, JsonNode> entries) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        ArrayNode array = objectMapper.createArrayNode();
+        new TreeMap<>(entries).values().forEach(array::add);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), array);
+    }
+    
+    private static String key(JsonNode node) {
+        StringBuilder key = new StringBuilder(node.get("benchmark").asText())
+                .append(" [").append(node.get("mode").asText()).append("]");
+        JsonNode params = node.get("params");
+        if (params != null) {
+            objectMapper.convertValue(params, new TypeReference<TreeMap<String, String>>() {}).forEach((name, value) ->
+                    key.append(' ').append(name).append('=').append(value));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.todoapp.exception;
+
+import com.example.todoapp.controller.TodoController;
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 例外の生成（スタックトレースの取得を含む）からエラーレスポンスの組み立てまで
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobalExceptionHandlerBenchmark {
+    
+    private GlobalExceptionHandler handler;
+    private MethodParameter createTodoRequest;
+    
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler();
+        createTodoRequest = new MethodParameter(
+                TodoController.class.getMethod("createTodo", TodoDTO.CreateRequest.class, UserPrincipal.class),
+                0
+        );
+    }
+    
+    @Benchmark
+    public ResponseEntity<Map<String, String>> runtimeException() {
+        return handler.handleRuntimeException(new RuntimeException("Todoが見つかりません"));
+    }
+    
+    @Benchmark
+    public ResponseEntity<Map<String, String>> badCredentials() {
+        return handler.handleBadCredentialsException(new BadCredentialsException("Bad credentials"));
+    }
+    
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> validationError() {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new TodoDTO.CreateRequest(), "request");
+        bindingResult.addError(new FieldError("request", "title", "タイトルは必須です"));
+        return handler.handleValidationExceptions(new MethodArgumentNotValidException(createTodoRequest, bindingResult));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.todoapp.search;
+
+import com.example.todoapp.dto.TodoDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 1ユーザー分の転置インデックスでの検索（1ページ目の20件）と、比較用の全件走査（LIKE '%…%' 相当）
+// 100万件のインデックスは約2GBのヒープを使う
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class TodoSearchBenchmark {
+    
+    // 1件あたり9語を選ぶため、各語は約17%のTodoに出現する（2語の両方を含むのは約3%）
+    private static final String[] WORDS = {
+            "会議", "資料", "買い物", "牛乳", "掃除", "洗濯", "予約", "病院", "銀行", "振込",
+            "請求書", "見積もり", "レビュー", "リリース", "デプロイ", "テスト", "設計", "打ち合わせ", "メール", "返信",
+            "電話", "確認", "提出", "締め切り", "報告", "日報", "週報", "月次", "予算", "経費",
+            "精算", "出張", "ホテル", "新幹線", "チケット", "誕生日", "プレゼント", "旅行", "ジム", "ランニング",
+            "release", "deploy", "review", "meeting", "invoice", "backup", "server", "database", "report", "design"
+    };
+    
+    // 0.1%のTodoにだけ出現する語
+    private static final String RARE_WORD = "棚卸し";
+    
+    private static final int PAGE_SIZE = 20;
+    
+    @Param({"10000", "1000000"})
+    private int documents;
+    
+    private TodoTextIndex index;
+    private List<TodoDTO.Response> todos;
+    private Random random;
+    
+    @Setup
+    public void setUp() {
+        Random data = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        todos = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            String title = words(data, 2) + (i % 1000 == 0 ? RARE_WORD : "");
+            String description = words(data, 4) + "。" + words(data, 2) + "を" + words(data, 1) + "する";
+            todos.add(new TodoDTO.Response((long) i + 1, title, description, i % 3 == 0, now.minusMinutes(i), now.minusMinutes(i)));
+        }
+        index = new TodoTextIndex(todos);
+        random = new Random(7);
+    }
+    
+    @Benchmark
+    public TodoSearchIndex.Page searchCommonTerm() {
+        return index.search(List.of("会議"), 0, PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public TodoSearchIndex.Page searchRareTerm() {
+        return index.search(List.of(RARE_WORD), 0, PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public TodoSearchIndex.Page searchTwoTerms() {
+        return index.search(List.of("会議", "資料"), 0, PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public TodoSearchIndex.Page searchEnglishTerm() {
+        return index.search(List.of("deploy"), 0, PAGE_SIZE);
+    }
+    
+    // インデックスを使わずに全件の本文を走査する（件数を数えるだけで順位付けはしない）
+    @Benchmark
+    public int scanRareTerm() {
+        int count = 0;
+        for (TodoDTO.Response todo : todos) {
+            if (todo.getTitle().contains(RARE_WORD) || todo.getDescription().contains(RARE_WORD)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    // 既存のTodoのタイトル変更をインデックスに反映する
+    @Benchmark
+    public void update() {
+        TodoDTO.Response todo = todos.get(random.nextInt(todos.size()));
+        index.put(new TodoDTO.Response(
+                todo.getId(),
+                words(random, 2),
+                todo.getDescription(),
+                todo.getCompleted(),
+                todo.getCreatedAt(),
+                LocalDateTime.now()
+        ));
+    }
+    
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
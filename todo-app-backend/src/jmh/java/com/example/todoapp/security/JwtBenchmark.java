@@ -0,0 +1,91 @@
+package com.example.todoapp.security;
+
+import com.example.todoapp.model.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// リクエストごとに実行されるJWTの生成・検証
+// verifyUncached / tripleParse は検証済みトークンのキャッシュ導入前（クレームごとに署名検証していた）の比較用
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    
+    private JwtUtil jwtUtil;
+    private String token;
+    private User user;
+    
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", Base64.getEncoder().encodeToString(secret));
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", 10000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheTtl", Duration.ofMinutes(5));
+        jwtUtil.init();
+        
+        token = jwtUtil.generateToken(1L, "alice");
+        user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(1L, "alice");
+    }
+    
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return jwtUtil.verify(token);
+    }
+    
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+    
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+    
+    @Benchmark
+    public String verifyUncached() {
+        return jwtUtil.extractClaim(token, Claims::getSubject);
+    }
+    
+    // ユーザー名・有効期限・ユーザーIDをそれぞれパースしていた旧フィルターの処理
+    @Benchmark
+    public void tripleParse(Blackhole blackhole) {
+        String username = jwtUtil.extractClaim(token, Claims::getSubject);
+        Date expiration = jwtUtil.extractClaim(token, Claims::getExpiration);
+        Object userId = jwtUtil.extractClaim(token, claims -> claims.get(JwtUtil.USER_ID_CLAIM));
+        blackhole.consume(username);
+        blackhole.consume(expiration);
+        blackhole.consume(userId);
+    }
+}
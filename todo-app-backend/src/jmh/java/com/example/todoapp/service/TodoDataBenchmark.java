@@ -0,0 +1,281 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.TodoAppApplication;
+import com.example.todoapp.cache.TodoListCache;
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.model.User;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// H2上のアプリケーションコンテキストで、一覧の読み出し方式・NDJSONエクスポート・一括操作を比較する
+// メモリ割り当て量は -prof gc（gc.alloc.rate.norm = 1回あたりのバイト数）で確認する
+// 出力中に保持しているメモリは *Retained の retainedBytes（出力の途中でGCした後のヒープ使用量の増加）で比較する
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoDataBenchmark {
+    
+    private static final int BATCH_SIZE = 100;
+    
+    @Param({"10000", "100000"})
+    private int todoCount;
+    
+    private ConfigurableApplicationContext context;
+    private TodoRepository todoRepository;
+    private TodoService todoService;
+    private TodoBatchService todoBatchService;
+    private TodoListCache todoListCache;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readOnlyTransaction;
+    private Long userId;
+    private List<TodoDTO.BatchOperation> toggleOperations;
+    private List<TodoDTO.BatchOperation> createOperations;
+    // NDJSONエクスポートの出力バイト数（保持メモリはこの半分を書き込んだ時点で計測する）
+    private long exportBytes;
+    
+    @Setup
+    public void setUp() {
+        // devtools の再起動用クラスローダーを使わない
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(TodoAppApplication.class)
+                .web(WebApplicationType.SERVLET)
+                // application.yml より優先させるためコマンドライン引数として渡す
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--logging.level.root=WARN"
+                );
+        todoRepository = context.getBean(TodoRepository.class);
+        todoService = context.getBean(TodoService.class);
+        todoBatchService = context.getBean(TodoBatchService.class);
+        todoListCache = context.getBean(TodoListCache.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setPassword("{noop}benchmark");
+        userId = context.getBean(UserRepository.class).save(user).getId();
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(todoCount);
+        for (int i = 0; i < todoCount; i++) {
+            rows.add(new Object[]{"Todo " + i, "説明 " + i, i % 3 == 0, userId, now, now});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "insert into todos (title, description, completed, user_id, created_at, updated_at) values (?, ?, ?, ?, ?, ?)",
+                rows
+        );
+        
+        // 切り替えを2回繰り返すと元に戻るため、データ量は測定中も変わらない
+        toggleOperations = new ArrayList<>(BATCH_SIZE);
+        todoRepository.findResponses(userId, null, null, null, BATCH_SIZE, TodoDTO.Field.ALL)
+                .forEach(todo -> toggleOperations.add(new TodoDTO.BatchOperation("toggle", todo.getId(), null, null, null)));
+        
+        createOperations = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            createOperations.add(new TodoDTO.BatchOperation("create", null, "追加 " + i, "説明 " + i, false));
+        }
+        
+        CountingOutputStream counter = new CountingOutputStream();
+        try {
+            todoService.exportTodos(userId, counter);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        exportBytes = counter.written;
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    // エンティティとして読み込んでからレスポンスに変換する
+    @Benchmark
+    public List<TodoDTO.Response> listAsEntities() {
+        return readOnlyTransaction.execute(status -> todoRepository.findByUserIdOrderByCreatedAtDesc(userId)
+                .stream()
+                .map(todoService::convertToResponse)
+                .toList());
+    }
+    
+    // 射影で直接レスポンスを読み出す（一覧APIの実装、キャッシュは経由しない）
+    @Benchmark
+    public List<TodoDTO.Response> listAsProjection() {
+        return readOnlyTransaction.execute(status ->
+                todoRepository.findResponses(userId, null, null, null, null, TodoDTO.Field.ALL));
+    }
+    
+    @Benchmark
+    public long exportNdjson() throws IOException {
+        return todoService.exportTodos(userId, OutputStream.nullOutputStream());
+    }
+    
+    // 1件ずつ読み出して書き出すエクスポートが出力中に保持しているメモリ（件数によらず一定）
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long exportNdjsonRetained(RetainedHeap heap) throws IOException {
+        HeapProbeOutputStream out = new HeapProbeOutputStream(exportBytes / 2);
+        long count = todoService.exportTodos(userId, out);
+        heap.retainedBytes += out.retained();
+        return count;
+    }
+    
+    // 比較用: 一覧API（レガシーの全件取得）と同じく、全件をリストに読み込んでからJSONに変換して書き出す
+    // キャッシュ済みの一覧を使わないよう、毎回キャッシュを破棄してから読み込む
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int listThenSerializeRetained(RetainedHeap heap) throws IOException {
+        todoListCache.evict(userId);
+        HeapProbeOutputStream out = new HeapProbeOutputStream(exportBytes / 2);
+        List<TodoDTO.Response> todos = todoService.getAllTodos(userId);
+        objectMapper.writeValue(out, todos);
+        heap.retainedBytes += out.retained();
+        return todos.size();
+    }
+    
+    // 一括操作と、同じ操作を1件ずつ別のトランザクション（APIの個別リクエストに相当、HTTPの処理は含まない）で実行した場合の比較
+    // 作成はTodoが増え続けるが、1回あたり BATCH_SIZE 件のため測定中の件数の変化は小さい
+    @Benchmark
+    public TodoDTO.BatchResponse batchToggle() {
+        return todoBatchService.applyBatch(toggleOperations, userId);
+    }
+    
+    @Benchmark
+    public int togglePerRequest() {
+        for (TodoDTO.BatchOperation operation : toggleOperations) {
+            todoService.toggleComplete(operation.getId(), userId);
+        }
+        return toggleOperations.size();
+    }
+    
+    @Benchmark
+    public TodoDTO.BatchResponse batchCreate() {
+        return todoBatchService.applyBatch(createOperations, userId);
+    }
+    
+    @Benchmark
+    public int createPerRequest() {
+        for (TodoDTO.BatchOperation operation : createOperations) {
+            todoService.createTodo(
+                    new TodoDTO.CreateRequest(operation.getTitle(), operation.getDescription(), operation.getCompleted()),
+                    userId
+            );
+        }
+        return createOperations.size();
+    }
+    
+    // 保持メモリの計測結果（反復ごとの合計を、SingleShotTime では1回分として出力する）
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RetainedHeap {
+        
+        public long retainedBytes;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+    }
+    
+    // 出力前にGCしたヒープ使用量を基準とし、probeAt バイトを書き込んだ時点でGCしたヒープ使用量との差を記録する
+    // GCで回収されずに残るのは、出力中の処理が参照しているオブジェクトだけ
+    private static final class HeapProbeOutputStream extends OutputStream {
+        
+        private final long probeAt;
+        private final long baseline;
+        private long written;
+        private long retained = -1;
+        
+        private HeapProbeOutputStream(long probeAt) {
+            this.probeAt = probeAt;
+            this.baseline = usedHeapAfterGc();
+        }
+        
+        @Override
+        public void write(int b) {
+            written++;
+            probe();
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+            probe();
+        }
+        
+        private void probe() {
+            if (retained < 0 && written >= probeAt) {
+                retained = Math.max(0, usedHeapAfterGc() - baseline);
+            }
+        }
+        
+        private long retained() {
+            return Math.max(retained, 0);
+        }
+        
+        private static long usedHeapAfterGc() {
+            System.gc();
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+    
+    private static final class CountingOutputStream extends OutputStream {
+        
+        private long written;
+        
+        @Override
+        public void write(int b) {
+            written++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.model.Todo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 一覧APIのレスポンス生成（エンティティからの変換とJSONへのシリアライズ）
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoSerializationBenchmark {
+    
+    @Param({"10", "1000", "10000"})
+    private int size;
+    
+    private TodoService todoService;
+    private ObjectMapper objectMapper;
+    private List<Todo> todos;
+    private List<TodoDTO.Response> responses;
+    
+    @Setup
+    public void setUp() {
+        // convertToResponse は依存するBeanを使わない
+        todoService = new TodoService(null, null, null, null, null, null, null, null);
+        // Spring Boot と同じ既定値（JavaTimeModule、日時は文字列）で構築する
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        
+        LocalDateTime now = LocalDateTime.now();
+        todos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Todo todo = new Todo();
+            todo.setId((long) i + 1);
+            todo.setTitle("Todo " + i);
+            todo.setDescription(i % 2 == 0 ? "説明 " + i : null);
+            todo.setCompleted(i % 3 == 0);
+            todo.setCreatedAt(now.minusMinutes(i));
+            todo.setUpdatedAt(now.minusMinutes(i));
+            todos.add(todo);
+        }
+        responses = convert();
+    }
+    
+    @Benchmark
+    public List<TodoDTO.Response> convert() {
+        List<TodoDTO.Response> result = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            result.add(todoService.convertToResponse(todo));
+        }
+        return result;
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+    
+    @Benchmark
+    public byte[] convertAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(convert());
+    }
+}
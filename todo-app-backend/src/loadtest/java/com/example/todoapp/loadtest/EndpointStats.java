@@ -0,0 +1,103 @@
+package com.example.todoapp.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// エンドポイントごとのレイテンシ（マイクロ秒）と結果の集計
+// レイテンシは予定した送信時刻から計測する（送信が遅れた時間も含め、coordinated omission を避ける）
+final class EndpointStats {
+    
+    // ステータスコードの代わりに使う値（接続エラー・タイムアウト）
+    static final int IO_ERROR = 0;
+    
+    private final Operation operation;
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<Integer, LongAdder> errors = new ConcurrentHashMap<>();
+    
+    EndpointStats(Operation operation) {
+        this.operation = operation;
+    }
+    
+    String endpoint() {
+        return operation.endpoint();
+    }
+    
+    void record(long latencyMicros, int status) {
+        latency.recordValue(Math.max(latencyMicros, 0));
+        if (status >= 200 && status < 400) {
+            succeeded.increment();
+        } else {
+            errors.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+    }
+    
+    // 同時実行数の上限を超えて送信できなかったリクエスト（エラーとして数える）
+    void drop() {
+        dropped.increment();
+    }
+    
+    long total() {
+        return latency.getTotalCount() + dropped.sum();
+    }
+    
+    long failed() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum() + dropped.sum();
+    }
+    
+    double errorRate() {
+        long total = total();
+        return total == 0 ? 0 : (double) failed() / total;
+    }
+    
+    // パーセンタイル（ミリ秒）
+    double percentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    String summaryLine(double seconds) {
+        return String.format("%-30s %8d %7.2f%% %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s",
+                operation.endpoint(),
+                total(),
+                errorRate() * 100,
+                succeeded.sum() / seconds,
+                percentileMillis(50),
+                percentileMillis(90),
+                percentileMillis(99),
+                percentileMillis(99.9),
+                latency.getMaxValue() / 1000.0,
+                errorDetails());
+    }
+    
+    static String summaryHeader() {
+        return String.format("%-30s %8s %8s %9s %9s %9s %9s %9s %9s  %s",
+                "Endpoint", "Requests", "Errors", "OK/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "Error details");
+    }
+    
+    // HdrHistogram のパーセンタイル分布（<操作><suffix>.hgrm、単位はミリ秒）
+    void writeHistogram(Path directory, String suffix) throws IOException {
+        Path file = directory.resolve(operation.name().toLowerCase() + suffix + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            latency.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+    
+    private String errorDetails() {
+        Map<String, Long> details = new TreeMap<>();
+        errors.forEach((status, count) -> details.put(status == IO_ERROR ? "io" : String.valueOf(status), count.sum()));
+        if (dropped.sum() > 0) {
+            details.put("dropped", dropped.sum());
+        }
+        return details.isEmpty() ? "" : details.toString();
+    }
+}
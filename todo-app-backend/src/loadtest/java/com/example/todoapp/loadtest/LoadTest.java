@@ -0,0 +1,414 @@
+package com.example.todoapp.loadtest;
+
+import com.example.todoapp.TodoAppApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// プロセス内で起動したバックエンド（H2）に対するエンドツーエンドの負荷試験
+// 到着レートを固定した開放モデルで送信し（応答を待たずに次を送る）、エンドポイントごとに集計する
+// 負荷の集中（loadtest.burst-rate、既定はログイン）を指定した場合は、集中している間（burst）とそれ以外（steady）を分けて集計し、
+// 同じ実行の steady を基準に、集中している間の Todo API のレイテンシを比較する
+// loadtest.server-delay を指定すると、Todo API でブロッキングI/Oを模して待たせ、多数のリクエストを同時に処理中にする
+// （プラットフォームスレッドと仮想スレッドの比較用）
+// 使い方: mvn -Pload-test verify -Dloadtest.rate=500 -Dloadtest.duration=PT2M
+public class LoadTest {
+    
+    private static final String PASSWORD = "password123";
+    
+    private final LoadTestConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Phase, Map<Operation, EndpointStats>> stats = new EnumMap<>(Phase.class);
+    private final List<VirtualUser> users = new ArrayList<>();
+    private final ExecutorService clientExecutor = Executors.newFixedThreadPool(
+            Math.max(4, Runtime.getRuntime().availableProcessors()));
+    // 計測期間中に同時に送信中だったリクエスト数の最大値
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private HttpClient httpClient;
+    private String baseUrl;
+    // アプリケーションがリクエストを処理するスレッドの種類（比較の記録用）
+    private String serverThreads;
+    // ログインを集中させる期間（System.nanoTime() の値、指定しない場合は空）
+    private volatile long burstStart;
+    private volatile long burstEnd;
+    
+    LoadTest(LoadTestConfig config) {
+        this.config = config;
+        for (Phase phase : Phase.values()) {
+            Map<Operation, EndpointStats> endpoints = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                endpoints.put(operation, new EndpointStats(operation));
+            }
+            stats.put(phase, endpoints);
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        boolean passed;
+        try (ConfigurableApplicationContext context = startApplication(config)) {
+            LoadTest loadTest = new LoadTest(config);
+            passed = loadTest.run(
+                    context.getEnvironment().getProperty("local.server.port"),
+                    context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false));
+        }
+        System.exit(passed ? 0 : 1);
+    }
+    
+    // application.yml より優先させるためコマンドライン引数として渡す（loadtest.app-args で追加・上書きできる）
+    private static ConfigurableApplicationContext startApplication(LoadTestConfig config) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--logging.level.root=WARN"
+        ));
+        args.addAll(List.of(config.appArgs()));
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TodoAppApplication.class);
+        if (!config.serverDelay().isZero()) {
+            builder.initializers(context -> {
+                FilterRegistrationBean<SimulatedLatencyFilter> registration =
+                        new FilterRegistrationBean<>(new SimulatedLatencyFilter(config.serverDelay()));
+                registration.addUrlPatterns("/api/todos", "/api/todos/*");
+                context.getBeanFactory().registerSingleton("simulatedLatencyFilter", registration);
+            });
+        }
+        return builder.run(args.toArray(String[]::new));
+    }
+    
+    boolean run(String port, boolean virtualThreads) throws Exception {
+        baseUrl = "http://localhost:" + port;
+        serverThreads = virtualThreads ? "virtual" : "platform";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        try {
+            seed();
+            drive();
+            return report();
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+    
+    // ユーザーを登録し、一括操作APIでTodoを作成する
+    private void seed() throws Exception {
+        System.out.printf("Seeding %d users x %d todos...%n", config.users(), config.todosPerUser());
+        for (int i = 0; i < config.users(); i++) {
+            String username = "load" + i;
+            JsonNode registered = sendForJson("POST", "/api/auth/register", null, Map.of(
+                    "username", username,
+                    "email", username + "@example.com",
+                    "password", PASSWORD));
+            VirtualUser user = new VirtualUser(username, registered.get("token").asText());
+            
+            for (int created = 0; created < config.todosPerUser(); created += 500) {
+                List<Map<String, Object>> operations = new ArrayList<>();
+                for (int j = created; j < Math.min(created + 500, config.todosPerUser()); j++) {
+                    operations.add(Map.of("op", "create", "title", "Todo " + j));
+                }
+                JsonNode response = sendForJson("POST", "/api/todos/batch", user.token, Map.of("operations", operations));
+                response.get("results").forEach(result -> user.todoIds.add(result.get("todo").get("id").asLong()));
+            }
+            users.add(user);
+        }
+    }
+    
+    private void drive() throws InterruptedException {
+        long start = System.nanoTime();
+        long warmupEnd = start + config.warmup().toNanos();
+        long end = warmupEnd + config.duration().toNanos();
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        Operation[] weighted = weightedOperations(config.mix());
+        
+        Thread burst = null;
+        if (config.hasBurst()) {
+            burstStart = warmupEnd + config.burstStart().toNanos();
+            burstEnd = Math.min(burstStart + config.burstDuration().toNanos(), end);
+            Operation[] burstWeighted = weightedOperations(config.burstMix());
+            burst = new Thread(() -> send(config.burstRate(), burstStart, burstEnd, warmupEnd, inFlight,
+                    () -> burstWeighted[ThreadLocalRandom.current().nextInt(burstWeighted.length)]), "load-test-burst");
+            System.out.printf("Burst: +%.0f req/s of %s from %s for %s%n",
+                    config.burstRate(), config.burstMix(), config.burstStart(), config.burstDuration());
+            burst.start();
+        }
+        
+        System.out.printf("Driving %.0f req/s for %s (warmup %s)...%n", config.rate(), config.duration(), config.warmup());
+        send(config.rate(), start, end, warmupEnd, inFlight,
+                () -> weighted[ThreadLocalRandom.current().nextInt(weighted.length)]);
+        if (burst != null) {
+            burst.join();
+        }
+        
+        // 送信済みのリクエストの完了を待つ
+        if (!inFlight.tryAcquire(config.maxInFlight(), config.requestTimeout().toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            System.out.println("Some requests did not complete before the report");
+        }
+    }
+    
+    // start から end まで rate の間隔で送信する（warmupEnd より前に予定したリクエストは集計しない）
+    private void send(double rate, long start, long end, long warmupEnd, Semaphore inFlight, Supplier<Operation> next) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            
+            Operation operation = next.get();
+            VirtualUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+            Phase phase = intended >= warmupEnd ? phaseOf(intended) : null;
+            if (!inFlight.tryAcquire()) {
+                if (phase != null) {
+                    stats.get(phase).get(operation).drop();
+                }
+                continue;
+            }
+            if (phase != null) {
+                peakInFlight.accumulateAndGet(config.maxInFlight() - inFlight.availablePermits(), Math::max);
+            }
+            execute(operation, user, intended, phase).whenComplete((result, e) -> inFlight.release());
+        }
+    }
+    
+    private Phase phaseOf(long intended) {
+        return intended >= burstStart && intended < burstEnd ? Phase.BURST : Phase.STEADY;
+    }
+    
+    // phase が null の場合（ウォームアップ中）は集計しない
+    private CompletableFuture<Void> execute(Operation operation, VirtualUser user, long intended, Phase phase) {
+        HttpRequest request;
+        Long todoId = null;
+        switch (operation) {
+            case LOGIN -> request = request("POST", "/api/auth/login", null,
+                    Map.of("username", user.username, "password", PASSWORD));
+            case LIST -> request = request("GET", "/api/todos", user.token, null);
+            case CREATE -> request = request("POST", "/api/todos", user.token,
+                    Map.of("title", "Load " + intended));
+            case TOGGLE -> {
+                todoId = user.todoIds.peekFirst();
+                request = todoId == null ? null : request("PATCH", "/api/todos/" + todoId + "/toggle", user.token, null);
+            }
+            case DELETE -> {
+                // 同じTodoを並行して削除しないよう、取り出してから削除する
+                todoId = user.todoIds.pollLast();
+                request = todoId == null ? null : request("DELETE", "/api/todos/" + todoId, user.token, null);
+            }
+            default -> throw new IllegalStateException();
+        }
+        if (request == null) {
+            // 対象のTodoが残っていない場合は作成に置き換える
+            return execute(Operation.CREATE, user, intended, phase);
+        }
+        
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, e) -> {
+                    long latencyMicros = (System.nanoTime() - intended) / 1000;
+                    int status = e != null ? EndpointStats.IO_ERROR : response.statusCode();
+                    if (phase != null) {
+                        stats.get(phase).get(operation).record(latencyMicros, status);
+                    }
+                    if (e == null && status < 300) {
+                        onSuccess(operation, user, response.body());
+                    }
+                    return null;
+                });
+    }
+    
+    private void onSuccess(Operation operation, VirtualUser user, byte[] body) {
+        try {
+            switch (operation) {
+                case LOGIN -> user.token = objectMapper.readTree(body).get("token").asText();
+                case CREATE -> user.todoIds.addFirst(objectMapper.readTree(body).get("id").asLong());
+                default -> {
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private boolean report() throws IOException {
+        double burstSeconds = config.hasBurst() ? (burstEnd - burstStart) / 1e9 : 0;
+        double steadySeconds = config.duration().toMillis() / 1000.0 - burstSeconds;
+        Files.createDirectories(config.outputDir());
+        
+        List<String> lines = new ArrayList<>();
+        if (!config.label().isEmpty()) {
+            lines.add("label=" + config.label());
+        }
+        lines.add(String.format("rate=%.0f req/s, duration=%s, users=%d, todos/user=%d, mix=%s",
+                config.rate(), config.duration(), config.users(), config.todosPerUser(), config.mix()));
+        lines.add(String.format("server-delay=%s, peak in-flight=%d (max %d), server threads=%s",
+                config.serverDelay(), peakInFlight.get(), config.maxInFlight(), serverThreads));
+        List<String> failures = new ArrayList<>();
+        
+        if (config.hasBurst()) {
+            lines.add(String.format("steady (%.0fs):", steadySeconds));
+        }
+        lines.add(EndpointStats.summaryHeader());
+        for (Operation operation : config.mix().keySet()) {
+            EndpointStats endpoint = stats.get(Phase.STEADY).get(operation);
+            endpoint.writeHistogram(config.outputDir(), "");
+            lines.add(endpoint.summaryLine(steadySeconds));
+            check(endpoint, failures);
+        }
+        
+        if (config.hasBurst()) {
+            lines.add(String.format("burst (%.0fs, +%.0f req/s of %s):", burstSeconds, config.burstRate(), config.burstMix()));
+            lines.add(EndpointStats.summaryHeader());
+            Set<Operation> operations = EnumSet.copyOf(config.mix().keySet());
+            operations.addAll(config.burstMix().keySet());
+            for (Operation operation : operations) {
+                EndpointStats endpoint = stats.get(Phase.BURST).get(operation);
+                endpoint.writeHistogram(config.outputDir(), "-burst");
+                lines.add(endpoint.summaryLine(burstSeconds));
+                // 集中している間のログインの 503 は想定どおりの拒否のため、エラー率の判定から除く
+                if (operation != Operation.LOGIN) {
+                    check(endpoint, failures);
+                }
+            }
+            compareBurst(lines, failures);
+        }
+        
+        if (!failures.isEmpty()) {
+            lines.add("FAILED:");
+            failures.forEach(failure -> lines.add("  " + failure));
+        }
+        
+        lines.forEach(System.out::println);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(config.outputDir().resolve("summary.txt")), true, StandardCharsets.UTF_8)) {
+            lines.forEach(out::println);
+        }
+        System.out.println("HdrHistogram output: " + config.outputDir().toAbsolutePath());
+        return failures.isEmpty();
+    }
+    
+    private void check(EndpointStats endpoint, List<String> failures) {
+        if (endpoint.errorRate() > config.maxErrorRate()) {
+            failures.add(String.format("%s: error rate %.2f%% > %.2f%%",
+                    endpoint.endpoint(), endpoint.errorRate() * 100, config.maxErrorRate() * 100));
+        }
+        if (config.maxP99() != null && endpoint.percentileMillis(99) > config.maxP99().toMillis()) {
+            failures.add(String.format("%s: p99 %.2fms > %dms",
+                    endpoint.endpoint(), endpoint.percentileMillis(99), config.maxP99().toMillis()));
+        }
+    }
+    
+    // ログイン以外のエンドポイントについて、steady に対する burst の p50・p99 の比を出力する
+    // loadtest.max-burst-p99-ratio を指定した場合は、p99 の比がそれを超えたら失敗させる
+    private void compareBurst(List<String> lines, List<String> failures) {
+        lines.add("burst vs steady (Todo API):");
+        for (Operation operation : config.mix().keySet()) {
+            if (operation == Operation.LOGIN) {
+                continue;
+            }
+            EndpointStats steady = stats.get(Phase.STEADY).get(operation);
+            EndpointStats burst = stats.get(Phase.BURST).get(operation);
+            double p50Ratio = burst.percentileMillis(50) / Math.max(steady.percentileMillis(50), 0.001);
+            double p99Ratio = burst.percentileMillis(99) / Math.max(steady.percentileMillis(99), 0.001);
+            lines.add(String.format("  %-30s p50 %7.2fms -> %7.2fms (x%.2f)   p99 %7.2fms -> %7.2fms (x%.2f)",
+                    operation.endpoint(),
+                    steady.percentileMillis(50), burst.percentileMillis(50), p50Ratio,
+                    steady.percentileMillis(99), burst.percentileMillis(99), p99Ratio));
+            if (config.maxBurstP99Ratio() > 0 && p99Ratio > config.maxBurstP99Ratio()) {
+                failures.add(String.format("%s: p99 during the login burst is x%.2f of steady > x%.2f",
+                        operation.endpoint(), p99Ratio, config.maxBurstP99Ratio()));
+            }
+        }
+    }
+    
+    // 比率に応じて操作を並べた配列（乱数で1つ選ぶ）
+    private static Operation[] weightedOperations(Map<Operation, Integer> mix) {
+        List<Operation> weighted = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        return weighted.toArray(Operation[]::new);
+    }
+    
+    private JsonNode sendForJson(String method, String path, String token, Object body) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request(method, path, token, body), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(method + " " + path + " failed: " + response.statusCode()
+                    + " " + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return objectMapper.readTree(response.body());
+    }
+    
+    private HttpRequest request(String method, String path, String token, Object body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(config.requestTimeout());
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        if (body != null) {
+            try {
+                builder.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        } else {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+    
+    // 集計の区分（ログインの集中を指定しない場合はすべて STEADY）
+    private enum Phase {
+        STEADY,
+        BURST
+    }
+    
+    // 負荷をかけるユーザー（トークンと作成済みTodoのID）
+    private static final class VirtualUser {
+        
+        private final String username;
+        private final ConcurrentLinkedDeque<Long> todoIds = new ConcurrentLinkedDeque<>();
+        private volatile String token;
+        
+        private VirtualUser(String username, String token) {
+            this.username = username;
+            this.token = token;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.todoapp.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+// 負荷試験の設定（システムプロパティ loadtest.* から読み込む）
+record LoadTestConfig(
+        int users,
+        int todosPerUser,
+        double rate,
+        Duration duration,
+        Duration warmup,
+        Map<Operation, Integer> mix,
+        int maxInFlight,
+        Duration requestTimeout,
+        Path outputDir,
+        double maxErrorRate,
+        Duration maxP99,
+        double burstRate,
+        Map<Operation, Integer> burstMix,
+        Duration burstStart,
+        Duration burstDuration,
+        double maxBurstP99Ratio,
+        Duration serverDelay,
+        String label,
+        String[] appArgs
+) {
+    
+    static LoadTestConfig fromSystemProperties() {
+        String maxP99 = property("max-p99", "");
+        String appArgs = property("app-args", "");
+        String maxBurstP99Ratio = property("max-burst-p99-ratio", "");
+        String label = property("label", "").trim();
+        Path output = Path.of(property("output", "target/loadtest"));
+        return new LoadTestConfig(
+                Integer.parseInt(property("users", "20")),
+                Integer.parseInt(property("todos", "100")),
+                Double.parseDouble(property("rate", "200")),
+                Duration.parse(property("duration", "PT60S")),
+                Duration.parse(property("warmup", "PT10S")),
+                parseMix(property("mix", "list=50,create=20,toggle=20,delete=5,login=5")),
+                Integer.parseInt(property("max-in-flight", "1000")),
+                Duration.parse(property("request-timeout", "PT10S")),
+                label.isEmpty() ? output : output.resolve(label),
+                Double.parseDouble(property("max-error-rate", "0.01")),
+                maxP99.isBlank() ? null : Duration.parse(maxP99),
+                Double.parseDouble(property("burst-rate", "0")),
+                parseMix(property("burst-mix", "login=1")),
+                Duration.parse(property("burst-start", "PT20S")),
+                Duration.parse(property("burst-duration", "PT20S")),
+                maxBurstP99Ratio.isBlank() ? 0 : Double.parseDouble(maxBurstP99Ratio),
+                Duration.parse(property("server-delay", "PT0S")),
+                label,
+                appArgs.isBlank() ? new String[0] : appArgs.trim().split("\\s+")
+        );
+    }
+    
+    // 負荷の集中（burst-rate > 0 の場合、計測開始から burst-start 後に burst-duration の間、mix とは別に burst-mix の操作を追加で送信する）
+    // burst-mix の既定はログインのみ
+    boolean hasBurst() {
+        return burstRate > 0 && !burstDuration.isZero();
+    }
+    
+    // 例: list=50,create=20,toggle=20,delete=5,login=5（値は比率）
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("loadtest.mix の指定が不正です: " + value);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix の指定が不正です: " + value);
+        }
+        return mix;
+    }
+    
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.todoapp.loadtest;
+
+// 負荷試験で実行する操作（レポートはこの単位で集計する）
+enum Operation {
+    
+    LOGIN("POST /api/auth/login"),
+    LIST("GET /api/todos"),
+    CREATE("POST /api/todos"),
+    TOGGLE("PATCH /api/todos/{id}/toggle"),
+    DELETE("DELETE /api/todos/{id}");
+    
+    private final String endpoint;
+    
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+    
+    String endpoint() {
+        return endpoint;
+    }
+}
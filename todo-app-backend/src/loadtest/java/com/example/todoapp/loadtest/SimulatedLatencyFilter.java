@@ -0,0 +1,34 @@
+package com.example.todoapp.loadtest;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// 負荷試験用: Todo APIの処理の前に、下流のサービス呼び出しのようなブロッキングI/Oを模して一定時間待つ（loadtest.server-delay）
+// 待っている間もリクエストのスレッドを占有するため、プラットフォームスレッドでは Tomcat のスレッド数が同時に処理できる数の上限になる
+// （仮想スレッドでは待っている間キャリアスレッドを解放するため、同時に処理できる数はスレッド数に制限されない）
+final class SimulatedLatencyFilter extends OncePerRequestFilter {
+    
+    private final long delayMillis;
+    
+    SimulatedLatencyFilter(Duration delay) {
+        this.delayMillis = delay.toMillis();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(e);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
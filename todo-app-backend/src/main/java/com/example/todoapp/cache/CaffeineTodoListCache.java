@@ -0,0 +1,119 @@
+package com.example.todoapp.cache;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// プロセス内のTodo一覧キャッシュ（既定）
+// 推定メモリ使用量（重み）の合計で上限を決め、超えた場合は使われていないユーザーから追い出す
+@Component
+@ConditionalOnProperty(name = "todo.cache.type", havingValue = "caffeine", matchIfMissing = true)
+public class CaffeineTodoListCache implements TodoListCache {
+    
+    // レスポンス1件あたりの固定部分（オブジェクトヘッダー、日時、ID等）と、IDからの索引の1件分の推定バイト数
+    private static final int RESPONSE_OVERHEAD = 160;
+    private static final int INDEX_OVERHEAD = 48;
+    
+    private final Cache<Long, Entry> cache;
+    
+    // バージョンが古いエントリーはミスとして数えるため、ヒット／ミスはCaffeineの統計ではなく自前で数える
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    
+    public CaffeineTodoListCache(
+            @Value("${todo.cache.max-weight:64MB}") DataSize maxWeight,
+            @Value("${todo.cache.ttl:PT10M}") Duration ttl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .weigher(CaffeineTodoListCache::weigh)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+    
+    @Override
+    public List<TodoDTO.Response> get(Long userId, long version, Function<Long, List<TodoDTO.Response>> loader) {
+        Entry cached = getIfPresent(userId, version);
+        if (cached != null) {
+            return cached.todos();
+        }
+        // 読み込みはキャッシュのロックの外で行う（compute の中でクエリを実行すると、その間は同じビンの他のユーザーも待たされる）
+        // 格納はI/Oを伴わない merge で行い、読み込み中により新しいバージョンの一覧が格納されていればそちらを残す
+        Entry loaded = Entry.of(version, loader.apply(userId));
+        return cache.asMap().merge(userId, loaded, (current, candidate) ->
+                current.version() >= candidate.version() ? current : candidate).todos();
+    }
+    
+    @Override
+    public Entry getIfPresent(Long userId, long version) {
+        Entry cached = cache.asMap().get(userId);
+        if (cached != null && cached.version() >= version) {
+            hitCount.increment();
+            return cached;
+        }
+        missCount.increment();
+        return null;
+    }
+    
+    // 直前のバージョンでないキャッシュは、間の変更（他のノードの書き込みなど）を取りこぼしているため破棄する
+    // patch は格納済みの一覧に対するメモリ上の処理だけで、I/Oは行わない
+    @Override
+    public void update(Long userId, long version, UnaryOperator<List<TodoDTO.Response>> patch) {
+        cache.asMap().computeIfPresent(userId, (id, current) -> {
+            if (current.version() >= version) {
+                return current;
+            }
+            if (current.version() == version - 1) {
+                return Entry.of(version, patch.apply(current.todos()));
+            }
+            return null;
+        });
+    }
+    
+    @Override
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+    
+    @Override
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+    
+    @Override
+    public Stats stats() {
+        CacheStats stats = cache.stats();
+        return new Stats(
+                hitCount.sum(),
+                missCount.sum(),
+                stats.evictionCount(),
+                stats.evictionWeight(),
+                cache.estimatedSize()
+        );
+    }
+    
+    // 文字列はUTF-16で1文字2バイトとして概算する
+    private static int weigh(Long userId, Entry entry) {
+        long bytes = 128;
+        for (TodoDTO.Response todo : entry.todos()) {
+            bytes += RESPONSE_OVERHEAD + INDEX_OVERHEAD + length(todo.getTitle()) * 2L + length(todo.getDescription()) * 2L;
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+    
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.todoapp.cache;
+
+import com.example.todoapp.dto.TodoDTO;
+
+import java.time.LocalDateTime;
+
+// キャッシュに格納するレスポンス（複数のリクエストで同じインスタンスを返すため、変更できないようにする）
+// JSONなどへの出力はゲッターを使うため TodoDTO.Response と同じ内容になる
+final class ImmutableTodoResponse extends TodoDTO.Response {
+    
+    private ImmutableTodoResponse(TodoDTO.Response source) {
+        super(
+                source.getId(),
+                source.getTitle(),
+                source.getDescription(),
+                source.getCompleted(),
+                source.getCreatedAt(),
+                source.getUpdatedAt()
+        );
+    }
+    
+    static TodoDTO.Response of(TodoDTO.Response response) {
+        return response instanceof ImmutableTodoResponse ? response : new ImmutableTodoResponse(response);
+    }
+    
+    @Override
+    public void setId(Long id) {
+        throw unsupported();
+    }
+    
+    @Override
+    public void setTitle(String title) {
+        throw unsupported();
+    }
+    
+    @Override
+    public void setDescription(String description) {
+        throw unsupported();
+    }
+    
+    @Override
+    public void setCompleted(Boolean completed) {
+        throw unsupported();
+    }
+    
+    @Override
+    public void setCreatedAt(LocalDateTime createdAt) {
+        throw unsupported();
+    }
+    
+    @Override
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        throw unsupported();
+    }
+    
+    private static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("キャッシュしたTodoは変更できません");
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.todoapp.cache;
+
+import com.example.todoapp.dto.TodoDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// キャッシュを使わない（todo.cache.type=none、常にDBから読み込む）
+@Component
+@ConditionalOnProperty(name = "todo.cache.type", havingValue = "none")
+public class NoOpTodoListCache implements TodoListCache {
+    
+    @Override
+    public List<TodoDTO.Response> get(Long userId, long version, Function<Long, List<TodoDTO.Response>> loader) {
+        return loader.apply(userId);
+    }
+    
+    @Override
+    public Entry getIfPresent(Long userId, long version) {
+        return null;
+    }
+    
+    @Override
+    public void update(Long userId, long version, UnaryOperator<List<TodoDTO.Response>> patch) {
+    }
+    
+    @Override
+    public void evict(Long userId) {
+    }
+    
+    @Override
+    public void evictAll() {
+    }
+    
+    @Override
+    public Stats stats() {
+        return new Stats(0, 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.todoapp.cache;
+
+import com.example.todoapp.dto.TodoDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// ユーザーごとのTodo一覧（作成日時の降順、変換済みのレスポンス）のキャッシュ
+// 既定はプロセス内のキャッシュ（CaffeineTodoListCache）で、複数ノードで共有するキャッシュはこのインターフェースを実装して差し替える
+// 格納する一覧は不変で、要素のレスポンスも変更できないコピー（複数のリクエストに同じインスタンスを返すため）
+// 一覧は読み込みの前に取得したユーザーの変更バージョン（TodoVersionService）とともに格納し、
+// 呼び出し側が読んだバージョンより古い一覧は返さない（他のノードの書き込みで古くなった一覧をETagとともに返さないように）
+public interface TodoListCache {
+    
+    // version 以降のキャッシュがあればそれを返し、なければ loader で読み込んで version の一覧として格納する
+    List<TodoDTO.Response> get(Long userId, long version, Function<Long, List<TodoDTO.Response>> loader);
+    
+    // version 以降のキャッシュがあれば返す（なければ null）
+    Entry getIfPresent(Long userId, long version);
+    
+    // バージョン version の変更がコミットされた後に呼ぶ
+    // 直前のバージョンのキャッシュがある場合だけ patch の結果で置き換え、それより古いキャッシュは破棄する
+    // 読み込み中の一覧には適用されないが、読み込んだ一覧は読み込み前のバージョンで格納されるため、
+    // その後のバージョンを要求した取得では使われずに読み直される
+    void update(Long userId, long version, UnaryOperator<List<TodoDTO.Response>> patch);
+    
+    void evict(Long userId);
+    
+    void evictAll();
+    
+    Stats stats();
+    
+    // キャッシュした一覧と、1件の取得用のIDからの索引
+    record Entry(long version, List<TodoDTO.Response> todos, Map<Long, TodoDTO.Response> byId) {
+        
+        public static Entry of(long version, List<TodoDTO.Response> todos) {
+            List<TodoDTO.Response> copies = new ArrayList<>(todos.size());
+            Map<Long, TodoDTO.Response> byId = new HashMap<>(todos.size() * 4 / 3 + 1);
+            for (TodoDTO.Response todo : todos) {
+                TodoDTO.Response copy = ImmutableTodoResponse.of(todo);
+                copies.add(copy);
+                byId.put(copy.getId(), copy);
+            }
+            return new Entry(version, List.copyOf(copies), Map.copyOf(byId));
+        }
+    }
+    
+    // ヒット率・追い出しの統計情報
+    record Stats(long hitCount, long missCount, long evictionCount, long evictionWeight, long size) {
+        
+        public double hitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0.0 : (double) hitCount / requests;
+        }
+    }
+}
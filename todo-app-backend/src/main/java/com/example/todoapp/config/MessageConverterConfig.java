@@ -0,0 +1,26 @@
+package com.example.todoapp.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// JSON に加えて CBOR・Smile でも応答する（Accept: application/cbor / application/x-jackson-smile）
+// Spring MVC の既定のコンバーターは Jackson の既定値で構築されるため、Spring Boot の設定（日時は ISO 8601 の文字列など）を
+// 適用したビルダーで構築したもので置き換える（並び順は既定と同じく JSON の後になり、Accept の指定がなければ JSON を返す）
+@Configuration
+public class MessageConverterConfig {
+    
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+    
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.cache.TodoListCache;
+import com.example.todoapp.service.TodoStreamService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// アプリケーション固有のメトリクス（/actuator/prometheus で公開）
+@Configuration
+public class MetricsConfig {
+    
+    // todo.metrics.high-cardinality=false の場合、系列数が多くなるタグとヒストグラムのバケットを出力しない
+    // （エンドポイントごとの分位数はアプリ側で計算した値だけになる）
+    @Bean
+    public MeterFilter highCardinalityMeterFilter(
+            @Value("${todo.metrics.high-cardinality:true}") boolean highCardinality
+    ) {
+        if (highCardinality) {
+            return MeterFilter.accept();
+        }
+        MeterFilter ignoreTags = MeterFilter.ignoreTags("exception", "error");
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                return ignoreTags.map(id);
+            }
+            
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(false)
+                        .serviceLevelObjectives()
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+    
+    // Todo一覧キャッシュの統計（キャッシュの実装によらず TodoListCache.stats() から取得する）
+    @Bean
+    public MeterBinder todoListCacheMetrics(TodoListCache todoListCache) {
+        return registry -> {
+            FunctionCounter.builder("todo.cache.gets", todoListCache, cache -> cache.stats().hitCount())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("todo.cache.gets", todoListCache, cache -> cache.stats().missCount())
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("todo.cache.evictions", todoListCache, cache -> cache.stats().evictionCount())
+                    .register(registry);
+            FunctionCounter.builder("todo.cache.eviction.weight", todoListCache, cache -> cache.stats().evictionWeight())
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("todo.cache.size", todoListCache, cache -> cache.stats().size())
+                    .register(registry);
+        };
+    }
+    
+    @Bean
+    public MeterBinder todoStreamMetrics(TodoStreamService todoStreamService) {
+        return registry -> Gauge.builder("todo.stream.subscribers", todoStreamService, TodoStreamService::getSubscriberCount)
+                .register(registry);
+    }
+}
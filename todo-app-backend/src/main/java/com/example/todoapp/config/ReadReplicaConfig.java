@@ -0,0 +1,94 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.datasource.ReadReplicaProperties;
+import com.example.todoapp.datasource.ReplicaHealthMonitor;
+import com.example.todoapp.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 読み取り専用レプリカへの振り分け（todo.datasource.replicas を指定した場合だけ有効）
+// 指定がない場合はSpring Bootの自動設定どおり spring.datasource の単一の接続先を使う
+@Configuration
+@ConditionalOnProperty(name = "todo.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+    
+    // プライマリ（spring.datasource の設定をそのまま使う）
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties primaryProperties,
+            ReadReplicaProperties properties,
+            ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReadReplicaProperties.Replica> replicaProperties = properties.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = createReplica(name, replicaProperties.get(i), primaryProperties);
+            // レプリカのプールはBeanではないため、接続プールのメトリクスをここで登録する
+            meterRegistry.ifAvailable(replica::setMetricRegistry);
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(
+                primaryDataSource,
+                replicas,
+                properties.getLoadBalancing(),
+                properties.getPinWindow()
+        );
+    }
+    
+    // JPAなどが使うDataSource（実際の接続は最初のSQL実行時に、確定したトランザクション属性で振り分ける）
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+    
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(
+            ReplicaRoutingDataSource replicaRoutingDataSource,
+            ReadReplicaProperties properties
+    ) {
+        return new ReplicaHealthMonitor(replicaRoutingDataSource, properties);
+    }
+    
+    private static HikariDataSource createReplica(
+            String name,
+            ReadReplicaProperties.Replica replica,
+            DataSourceProperties primaryProperties
+    ) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
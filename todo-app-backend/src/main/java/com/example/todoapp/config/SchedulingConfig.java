@@ -0,0 +1,10 @@
+package com.example.todoapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// 定期実行ジョブ（削除記録のコンパクションなど）を有効化
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,7 +1,11 @@
 package com.example.todoapp.config;
 
+import com.example.todoapp.security.BoundedPasswordEncoder;
 import com.example.todoapp.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,10 +20,12 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -32,18 +38,30 @@ public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            AuthenticationProvider authenticationProvider,
+            @Value("${management.server.port:-1}") int managementPort
+    ) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // ストリーミングレスポンスの非同期ディスパッチ（認可は最初のリクエストで済んでいる）
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**", "/h2-console/**").permitAll()
+                        // ヘルスチェック（ロードバランサーから認証なしで呼ぶ）
+                        .requestMatchers("/actuator/health").permitAll()
+                        // 管理用ポート（management.server.port）へのリクエストは認証なしで許可する（内部ネットワークにだけ公開する）
+                        .requestMatchers(managementPort(managementPort)).permitAll()
+                        // メトリクスにはユーザーごとの情報は含まれないが、一般ユーザーのトークンで読めないようAPIのポートでは公開しない
+                        .requestMatchers("/actuator/**").denyAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         
         // H2コンソール用の設定
@@ -52,6 +70,10 @@ public class SecurityConfig {
         return http.build();
     }
     
+    private static RequestMatcher managementPort(int port) {
+        return request -> port > 0 && request.getLocalPort() == port;
+    }
+    
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -66,10 +88,10 @@ public class SecurityConfig {
     }
     
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
     
@@ -78,8 +100,14 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
     
+    // BCryptは専用のスレッドプールで計算する（同時実行数・待ち行列の長さ・待ち時間を制限）
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password-hashing.pool-size:2}") int poolSize,
+            @Value("${security.password-hashing.queue-capacity:8}") int queueCapacity,
+            @Value("${security.password-hashing.max-wait:PT1S}") Duration maxWait,
+            MeterRegistry meterRegistry
+    ) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity, maxWait, meterRegistry);
     }
 }
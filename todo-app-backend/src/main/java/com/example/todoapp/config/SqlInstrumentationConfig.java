@@ -0,0 +1,56 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.instrumentation.SqlInstrumentationFilter;
+import com.example.todoapp.instrumentation.SqlInstrumentationListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// リクエストごとのSQL集計（show-sql の代わりに本番でも有効にしておける軽量な計測）
+@Configuration
+@ConditionalOnProperty(name = "todo.sql.instrumentation", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig {
+    
+    // アプリケーションが使う DataSource（Bean名 dataSource）だけをJDBCプロキシで包む
+    // （レプリカ構成の内側のDataSourceまで包むと二重に数えるため）
+    @Bean
+    public static BeanPostProcessor sqlInstrumentationDataSourcePostProcessor() {
+        SqlInstrumentationListener listener = new SqlInstrumentationListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)
+                        || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(listener)
+                        .methodListener(listener)
+                        .proxyResultSet()
+                        .build();
+            }
+        };
+    }
+    
+    @Bean
+    public FilterRegistrationBean<SqlInstrumentationFilter> sqlInstrumentationFilter(
+            @Value("${todo.sql.max-statements:10}") int maxStatements,
+            @Value("${todo.sql.slow-threshold:PT0.2S}") Duration slowThreshold,
+            @Value("${todo.sql.repeat-threshold:5}") int repeatThreshold
+    ) {
+        FilterRegistrationBean<SqlInstrumentationFilter> registration = new FilterRegistrationBean<>(
+                new SqlInstrumentationFilter(maxStatements, slowThreshold, repeatThreshold)
+        );
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -1,11 +1,16 @@
 package com.example.todoapp.controller;
 
 import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.exception.PasswordHashingBusyException;
+import com.example.todoapp.security.UserPrincipal;
 import com.example.todoapp.service.AuthService;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -23,6 +28,9 @@ public class AuthController {
         try {
             AuthDTO.AuthResponse response = authService.register(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            // 混雑時は 503 + Retry-After（GlobalExceptionHandler で処理）
+            throw e;
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -35,10 +43,59 @@ public class AuthController {
         try {
             AuthDTO.AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", "ユーザー名またはパスワードが正しくありません");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
         }
     }
+    
+    // リクエストのトークンを失効させる
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+    ) {
+        Map<String, String> response = new HashMap<>();
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            response.put("message", "トークンがありません");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            authService.logout(authorization.substring(7));
+            response.put("message", "ログアウトしました");
+            return ResponseEntity.ok(response);
+        } catch (JwtException e) {
+            response.put("message", "トークンが正しくありません");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        } catch (Exception e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+    
+    // 漏洩したトークンなど、指定したトークンを失効させる（認証が必要）
+    @PostMapping("/revoke")
+    public ResponseEntity<?> revoke(
+            @Valid @RequestBody AuthDTO.RevokeRequest request,
+            @AuthenticationPrincipal UserPrincipal user
+    ) {
+        Map<String, String> response = new HashMap<>();
+        if (user == null) {
+            response.put("message", "認証が必要です");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            authService.revoke(request.getToken(), user.id());
+            response.put("message", "トークンを失効させました");
+            return ResponseEntity.ok(response);
+        } catch (JwtException e) {
+            response.put("message", "トークンが正しくありません");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
 }
@@ -1,18 +1,39 @@
 package com.example.todoapp.controller;
 
 import com.example.todoapp.dto.TodoDTO;
-import com.example.todoapp.model.User;
+import com.example.todoapp.security.UserPrincipal;
+import com.example.todoapp.service.TodoBatchService;
+import com.example.todoapp.service.TodoImportService;
+import com.example.todoapp.service.TodoSearchService;
 import com.example.todoapp.service.TodoService;
+import com.example.todoapp.service.TodoStatsService;
+import com.example.todoapp.service.TodoStreamService;
+import com.example.todoapp.service.TodoSyncService;
+import com.example.todoapp.service.TodoVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/todos")
@@ -20,37 +41,178 @@ import java.util.Map;
 public class TodoController {
     
     private final TodoService todoService;
+    private final TodoBatchService todoBatchService;
+    private final TodoVersionService todoVersionService;
+    private final TodoSyncService todoSyncService;
+    private final TodoStreamService todoStreamService;
+    private final TodoStatsService todoStatsService;
+    private final TodoSearchService todoSearchService;
+    private final TodoImportService todoImportService;
     
     @GetMapping
-    public ResponseEntity<List<TodoDTO.Response>> getAllTodos(
-            @AuthenticationPrincipal User user
+    public ResponseEntity<?> getAllTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String view,
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal UserPrincipal user,
+            WebRequest webRequest,
+            HttpServletResponse response
     ) {
-        List<TodoDTO.Response> todos = todoService.getAllTodos(user);
-        return ResponseEntity.ok(todos);
+        try {
+            TodoDTO.View columns = TodoDTO.View.from(view);
+            // fields を指定した場合は view より優先し、指定した項目だけを読み出して返す
+            Set<TodoDTO.Field> selected = TodoDTO.Field.parse(fields);
+            Set<TodoDTO.Field> read = selected != null ? selected : columns.fields();
+            
+            // 変更がなければ todos テーブルを参照せずに 304 を返す
+            long version = todoVersionService.currentVersion(user.id());
+            if (checkNotModified(webRequest, response, version, "list", cursor, limit, completed, columns, selected)) {
+                return null;
+            }
+            
+            // ページング指定がない場合は従来どおり全件を配列で返す（互換モード）
+            // キャッシュはETagと同じバージョン以降の一覧だけを使う
+            if (cursor == null && limit == null && completed == null && todoService.isLegacyUnpaged()) {
+                List<TodoDTO.Response> todos = todoService.getAllTodos(user.id(), read, version);
+                return ResponseEntity.ok(selected != null ? TodoDTO.Field.project(todos, selected) : todos);
+            }
+            
+            TodoDTO.PageResponse<TodoDTO.Response> page = todoService.getTodoPage(user.id(), cursor, limit, completed, read);
+            if (selected != null) {
+                return ResponseEntity.ok(new TodoDTO.PageResponse<>(
+                        TodoDTO.Field.project(page.getItems(), selected), page.getNextCursor(), page.getHasMore()));
+            }
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(
+            @RequestParam(required = false) String since,
+            @AuthenticationPrincipal UserPrincipal user
+    ) {
+        try {
+            TodoDTO.ChangesResponse changes = todoSyncService.getChanges(user.id(), since);
+            return ResponseEntity.ok(changes);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
+    // 変更の通知をSSEで受け取る（再接続時は Last-Event-ID 以降の変更から再開する）
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @AuthenticationPrincipal UserPrincipal user
+    ) {
+        return todoStreamService.subscribe(user.id(), lastEventId);
+    }
+    
+    // 件数（全件・完了・未完了・今日作成）を集計済みの値から返す（一覧を取得せずにバッジを表示する用途）
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats(
+            @AuthenticationPrincipal UserPrincipal user,
+            WebRequest webRequest,
+            HttpServletResponse response
+    ) {
+        // 日付が変わると今日作成の件数が変わるため、日付もETagに含める
+        if (isNotModified(webRequest, response, user.id(), "stats", LocalDate.now())) {
+            return null;
+        }
+        return ResponseEntity.ok(todoStatsService.getStats(user.id()));
+    }
+    
+    // タイトル・説明の全文検索（関連度順、page は0始まり）
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTodos(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal UserPrincipal user,
+            WebRequest webRequest,
+            HttpServletResponse response
+    ) {
+        try {
+            if (isNotModified(webRequest, response, user.id(), "search", q, page, size)) {
+                return null;
+            }
+            TodoDTO.SearchResponse result = todoSearchService.search(user.id(), q, page, size);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTodos(
+            @AuthenticationPrincipal UserPrincipal user
+    ) {
+        Long userId = user.id();
+        // 全件をメモリに載せず、1件ずつNDJSONとしてレスポンスに書き出す
+        StreamingResponseBody body = out -> todoService.exportTodos(userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"todos.ndjson\"")
+                .body(body);
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<?> getTodoById(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user
+            @RequestParam(required = false) String fields,
+            @AuthenticationPrincipal UserPrincipal user,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
+        Set<TodoDTO.Field> selected;
         try {
-            TodoDTO.Response todo = todoService.getTodoById(id, user);
-            return ResponseEntity.ok(todo);
+            selected = TodoDTO.Field.parse(fields);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        
+        // 変更がなければ todos テーブルを参照せずに 304 を返す
+        // バージョンは読み込みの前に取得する（レスポンスがETagのバージョンより古くならないように）
+        long version = todoVersionService.currentVersion(user.id());
+        String etag = etag(version, "item", id, selected);
+        // 一致の判定はレスポンスを変更せずに行い、ETagは読み込めた場合だけ付ける
+        // （存在しないTodoの 404 にETagを付けると、同じバージョンの間はその値での再検証に 304 を返してしまう）
+        if (new ServletWebRequest(request).checkNotModified(etag)) {
+            checkNotModified(webRequest, response, etag);
+            return null;
+        }
+        TodoDTO.Response todo;
+        try {
+            todo = todoService.getTodoById(id, user.id(), version);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
         }
+        checkNotModified(webRequest, response, etag);
+        return ResponseEntity.ok(selected != null ? TodoDTO.Field.project(todo, selected) : todo);
     }
     
     @PostMapping
     public ResponseEntity<?> createTodo(
             @Valid @RequestBody TodoDTO.CreateRequest request,
-            @AuthenticationPrincipal User user
+            @AuthenticationPrincipal UserPrincipal user
     ) {
         try {
-            TodoDTO.Response todo = todoService.createTodo(request, user);
+            TodoDTO.Response todo = todoService.createTodo(request, user.id());
             return ResponseEntity.status(HttpStatus.CREATED).body(todo);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -59,14 +221,49 @@ public class TodoController {
         }
     }
     
+    @PostMapping("/batch")
+    public ResponseEntity<?> applyBatch(
+            @Valid @RequestBody TodoDTO.BatchRequest request,
+            @AuthenticationPrincipal UserPrincipal user
+    ) {
+        try {
+            TodoDTO.BatchResponse response = todoBatchService.applyBatch(request.getOperations(), user.id());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
+    // リクエストボディ（application/json・application/x-ndjson・text/csv）または multipart の file を1行ずつ取り込む
+    // 不正な行はスキップして errors に行番号とともに返す
+    @PostMapping("/import")
+    public ResponseEntity<?> importTodos(
+            @RequestParam(required = false) MultipartFile file,
+            @AuthenticationPrincipal UserPrincipal user,
+            HttpServletRequest request
+    ) throws IOException {
+        try (InputStream in = file != null ? file.getInputStream() : request.getInputStream()) {
+            TodoDTO.ImportResponse result = file != null
+                    ? todoImportService.importTodos(in, file.getContentType(), file.getOriginalFilename(), user.id())
+                    : todoImportService.importTodos(in, request.getContentType(), null, user.id());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<?> updateTodo(
             @PathVariable Long id,
             @Valid @RequestBody TodoDTO.UpdateRequest request,
-            @AuthenticationPrincipal User user
+            @AuthenticationPrincipal UserPrincipal user
     ) {
         try {
-            TodoDTO.Response todo = todoService.updateTodo(id, request, user);
+            TodoDTO.Response todo = todoService.updateTodo(id, request, user.id());
             return ResponseEntity.ok(todo);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -78,10 +275,10 @@ public class TodoController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteTodo(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user
+            @AuthenticationPrincipal UserPrincipal user
     ) {
         try {
-            todoService.deleteTodo(id, user);
+            todoService.deleteTodo(id, user.id());
             Map<String, String> response = new HashMap<>();
             response.put("message", "Todoが削除されました");
             return ResponseEntity.ok(response);
@@ -95,10 +292,10 @@ public class TodoController {
     @PatchMapping("/{id}/toggle")
     public ResponseEntity<?> toggleComplete(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user
+            @AuthenticationPrincipal UserPrincipal user
     ) {
         try {
-            TodoDTO.Response todo = todoService.toggleComplete(id, user);
+            TodoDTO.Response todo = todoService.toggleComplete(id, user.id());
             return ResponseEntity.ok(todo);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -106,4 +303,27 @@ public class TodoController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
         }
     }
+    
+    // ユーザーの変更バージョンとリクエストの条件からETagを生成し、If-None-Match と一致するか判定する
+    // （インスタンス間で同じ値になるよう、条件は文字列表現からハッシュを取る）
+    // バージョンはデータより先に読むため、読み出し中に書き込みがあっても古いデータに新しいETagが付くことはない
+    // 同じ内容を gzip 圧縮や CBOR・Smile で返すことがあるため弱いETagにする（Tomcat は強いETagのレスポンスを圧縮しない）
+    private boolean isNotModified(WebRequest webRequest, HttpServletResponse response, Long userId, Object... variant) {
+        return checkNotModified(webRequest, response, todoVersionService.currentVersion(userId), variant);
+    }
+    
+    private boolean checkNotModified(WebRequest webRequest, HttpServletResponse response, long version, Object... variant) {
+        return checkNotModified(webRequest, response, etag(version, variant));
+    }
+    
+    private boolean checkNotModified(WebRequest webRequest, HttpServletResponse response, String etag) {
+        // ブラウザに保存させた上で毎回再検証させる（保存した形式は Accept ごとに区別させる）
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return webRequest.checkNotModified(etag);
+    }
+    
+    private static String etag(long version, Object... variant) {
+        return "W/\"" + version + "-" + Integer.toHexString(Arrays.toString(variant).hashCode()) + "\"";
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.todoapp.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// 読み取り専用レプリカの設定（todo.datasource.replicas を指定した場合だけ有効）
+@Data
+@ConfigurationProperties(prefix = "todo.datasource")
+public class ReadReplicaProperties {
+    
+    private List<Replica> replicas = new ArrayList<>();
+    
+    // レプリカの選び方
+    private LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+    
+    // レプリケーション遅延（秒）を1列で返すクエリ（未指定の場合は遅延を確認しない）
+    private String lagQuery;
+    
+    // この遅延を超えたレプリカは使わずプライマリから読む
+    private Duration maxLag = Duration.ofSeconds(2);
+    
+    // 書き込んだユーザーの読み取りをプライマリに固定する期間（自分の書き込みが必ず見えるよう max-lag 以上にする）
+    private Duration pinWindow = Duration.ofSeconds(10);
+    
+    @Data
+    public static class Replica {
+        private String url;
+        // 未指定の場合はプライマリと同じ
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+    
+    public enum LoadBalancing {
+        ROUND_ROBIN,
+        RANDOM
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.todoapp.datasource;
+
+import com.example.todoapp.event.TodoChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// レプリカの死活とレプリケーション遅延を定期的に確認し、異常なレプリカを振り分け対象から外す
+@Slf4j
+public class ReplicaHealthMonitor {
+    
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReadReplicaProperties properties;
+    
+    public ReplicaHealthMonitor(ReplicaRoutingDataSource routingDataSource, ReadReplicaProperties properties) {
+        this.routingDataSource = routingDataSource;
+        this.properties = properties;
+    }
+    
+    @Scheduled(fixedDelayString = "${todo.datasource.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        for (ReplicaRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            boolean healthy = isHealthy(replica);
+            if (healthy != replica.isHealthy()) {
+                if (healthy) {
+                    log.info("レプリカ {} を振り分け対象に戻しました", replica.getName());
+                } else {
+                    log.warn("レプリカ {} を振り分け対象から外しました", replica.getName());
+                }
+            }
+            replica.setHealthy(healthy);
+        }
+    }
+    
+    // 書き込みと同じトランザクション内で固定する（コミット直後の読み取りにも間に合うように）
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        routingDataSource.pinToPrimary(event.userId());
+    }
+    
+    private boolean isHealthy(ReplicaRoutingDataSource.Replica replica) {
+        try (Connection connection = replica.getDataSource().getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return false;
+            }
+            String lagQuery = properties.getLagQuery();
+            if (lagQuery == null || lagQuery.isBlank()) {
+                return true;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                if (!rs.next()) {
+                    return false;
+                }
+                double lagSeconds = rs.getDouble(1);
+                // NULL はレプリケーション停止中
+                return !rs.wasNull() && lagSeconds * 1000 <= properties.getMaxLag().toMillis();
+            }
+        } catch (SQLException e) {
+            log.debug("レプリカ {} のヘルスチェックに失敗しました: {}", replica.getName(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.todoapp.datasource;
+
+import com.example.todoapp.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 読み取り専用トランザクション（@Transactional(readOnly = true)）を正常なレプリカに振り分けるDataSource
+// 書き込み、トランザクション外の処理、直前に書き込んだユーザーの読み取りはプライマリで行う
+// 接続の取得時にトランザクションの属性が確定している必要があるため、LazyConnectionDataSourceProxy で包んで使う
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    static final String PRIMARY = "primary";
+    
+    private final List<Replica> replicas;
+    private final ReadReplicaProperties.LoadBalancing loadBalancing;
+    private final AtomicInteger next = new AtomicInteger();
+    // プライマリに固定中のユーザー（期限切れで自動的に解除される）
+    private final Cache<Long, Boolean> pinnedUsers;
+    
+    public ReplicaRoutingDataSource(
+            DataSource primary,
+            Map<String, DataSource> replicas,
+            ReadReplicaProperties.LoadBalancing loadBalancing,
+            Duration pinWindow
+    ) {
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.loadBalancing = loadBalancing;
+        this.pinnedUsers = Caffeine.newBuilder()
+                .expireAfterWrite(pinWindow)
+                .build();
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isCurrentUserPinned()) {
+            return PRIMARY;
+        }
+        Replica replica = chooseReplica();
+        if (replica == null) {
+            log.debug("利用可能なレプリカがないためプライマリから読み取ります");
+            return PRIMARY;
+        }
+        return replica.name;
+    }
+    
+    // 書き込んだユーザーの読み取りを一定期間プライマリに固定する（自分の書き込みを読めるように）
+    public void pinToPrimary(Long userId) {
+        pinnedUsers.put(userId, Boolean.TRUE);
+    }
+    
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+    
+    // レプリカの接続プールを閉じる（プライマリは別のBeanとして閉じられる）
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+    
+    private boolean isCurrentUserPinned() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null
+                && authentication.getPrincipal() instanceof UserPrincipal user
+                && pinnedUsers.getIfPresent(user.id()) != null;
+    }
+    
+    private Replica chooseReplica() {
+        int size = replicas.size();
+        int start = loadBalancing == ReadReplicaProperties.LoadBalancing.RANDOM
+                ? ThreadLocalRandom.current().nextInt(size)
+                : Math.floorMod(next.getAndIncrement(), size);
+        // 選んだレプリカが異常な場合は次のレプリカを試す
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+    
+    // レプリカと、ヘルスチェックで更新される状態
+    public static final class Replica {
+        
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+        
+        public boolean isHealthy() {
+            return healthy;
+        }
+        
+        void setHealthy(boolean healthy) {
+            this.healthy = healthy;
+        }
+    }
+}
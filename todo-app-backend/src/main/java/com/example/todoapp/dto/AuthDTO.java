@@ -37,6 +37,15 @@ public class AuthDTO {
         private String password;
     }
     
+    // 失効させるトークン（漏洩したトークンなど、本人のもののみ）
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RevokeRequest {
+        @NotBlank(message = "トークンは必須です")
+        private String token;
+    }
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -1,32 +1,141 @@
 package com.example.todoapp.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 public class TodoDTO {
     
+    // 一覧で読み出す項目の範囲（SUMMARY は description を読み出さない）
+    public enum View {
+        FULL,
+        SUMMARY;
+        
+        public static View from(String value) {
+            if (value == null || value.isEmpty()) {
+                return FULL;
+            }
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("view の指定が不正です: " + value);
+            }
+        }
+        
+        public Set<Field> fields() {
+            return this == FULL ? Field.ALL : Field.SUMMARY;
+        }
+    }
+    
+    // レスポンスの項目（fields=id,title,completed のように指定すると、指定した項目だけを読み出して返す）
+    public enum Field {
+        ID("id", Response::getId),
+        TITLE("title", Response::getTitle),
+        DESCRIPTION("description", Response::getDescription),
+        COMPLETED("completed", Response::getCompleted),
+        CREATED_AT("createdAt", Response::getCreatedAt),
+        UPDATED_AT("updatedAt", Response::getUpdatedAt);
+        
+        public static final Set<Field> ALL = Collections.unmodifiableSet(EnumSet.allOf(Field.class));
+        static final Set<Field> SUMMARY = Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(DESCRIPTION)));
+        
+        private final String jsonName;
+        private final Function<Response, Object> getter;
+        
+        Field(String jsonName, Function<Response, Object> getter) {
+            this.jsonName = jsonName;
+            this.getter = getter;
+        }
+        
+        // 指定がなければ null（項目を絞り込まない）
+        public static Set<Field> parse(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            Set<Field> fields = EnumSet.noneOf(Field.class);
+            for (String name : value.split(",")) {
+                String trimmed = name.trim();
+                Field field = Arrays.stream(values())
+                        .filter(candidate -> candidate.jsonName.equals(trimmed))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("fields の指定が不正です: " + trimmed));
+                fields.add(field);
+            }
+            return Collections.unmodifiableSet(fields);
+        }
+        
+        // 射影クエリで読み出した場合と同じく、指定されていない項目を null にしたコピー（id・createdAt は残す）
+        public static Response narrow(Response response, Set<Field> fields) {
+            return new Response(
+                    response.getId(),
+                    fields.contains(TITLE) ? response.getTitle() : null,
+                    fields.contains(DESCRIPTION) ? response.getDescription() : null,
+                    fields.contains(COMPLETED) ? response.getCompleted() : null,
+                    response.getCreatedAt(),
+                    fields.contains(UPDATED_AT) ? response.getUpdatedAt() : null
+            );
+        }
+        
+        // 指定された項目だけを宣言順に持つ Map（JSON・CBOR・Smile のいずれでも同じ構造で出力される）
+        public static Map<String, Object> project(Response response, Set<Field> fields) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (Field field : fields) {
+                values.put(field.jsonName, field.getter.apply(response));
+            }
+            return values;
+        }
+        
+        public static List<Map<String, Object>> project(List<Response> responses, Set<Field> fields) {
+            List<Map<String, Object>> projected = new ArrayList<>(responses.size());
+            for (Response response : responses) {
+                projected.add(project(response, fields));
+            }
+            return projected;
+        }
+    }
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     public static class CreateRequest {
         @NotBlank(message = "タイトルは必須です")
+        @Size(max = 255, message = "タイトルは255文字以内で入力してください")
         private String title;
         
+        @Size(max = 1000, message = "説明は1000文字以内で入力してください")
         private String description;
         
         private Boolean completed = false;
     }
     
+    // 指定した項目だけを更新する（null の項目は変更しない）
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     public static class UpdateRequest {
+        @Pattern(regexp = "(?s).*\\S.*", message = "タイトルは必須です")
+        @Size(max = 255, message = "タイトルは255文字以内で入力してください")
         private String title;
+        
+        @Size(max = 1000, message = "説明は1000文字以内で入力してください")
         private String description;
+        
         private Boolean completed;
     }
     
@@ -41,4 +150,122 @@ public class TodoDTO {
         private LocalDateTime createdAt;
         private LocalDateTime updatedAt;
     }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchRequest {
+        @NotEmpty(message = "操作は1件以上指定してください")
+        private List<BatchOperation> operations;
+    }
+    
+    // op: create / update / delete / toggle
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchOperation {
+        private String op;
+        private Long id;
+        private String title;
+        private String description;
+        private Boolean completed;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchResult {
+        private Integer index;
+        private String op;
+        private Boolean success;
+        private Response todo;
+        private String message;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BatchResponse {
+        private List<BatchResult> results;
+        private Integer succeeded;
+        private Integer failed;
+    }
+    
+    // 差分同期のレスポンス
+    // full が true の場合は upserted が全件（クライアントは手元のデータを置き換える）
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChangesResponse {
+        private List<Response> upserted;
+        private List<Long> deletedIds;
+        private String highWaterMark;
+        private Boolean full;
+    }
+    
+    // items は Response、または fields 指定時は指定した項目だけの Map
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PageResponse<T> {
+        private List<T> items;
+        private String nextCursor;
+        private Boolean hasMore;
+    }
+    
+    // GET /api/todos/stats（active = total - completed）
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatsResponse {
+        private Long total;
+        private Long completed;
+        private Long active;
+        private Long createdToday;
+    }
+    
+    // 検索結果の1件（titleHighlight と snippet は検索語を <mark> で囲んだHTMLエスケープ済みの文字列）
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SearchHit {
+        private Response todo;
+        private Double score;
+        private String titleHighlight;
+        private String snippet;
+    }
+    
+    // GET /api/todos/search（page は0始まり、items は関連度の降順）
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SearchResponse {
+        private List<SearchHit> items;
+        private Long total;
+        private Integer page;
+        private Integer size;
+        private Boolean hasMore;
+    }
+    
+    // 取り込めなかった行（row は1始まりで、CSV はヘッダー行を除いたデータ行の番号）
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImportError {
+        private Integer row;
+        private String message;
+    }
+    
+    // POST /api/todos/import
+    // completed が false の場合は途中で中断している（それまでに取り込んだ imported 件は保存済み）
+    // errors は todo.import.max-errors 件までで、failed はスキップした行の総数
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ImportResponse {
+        private Integer imported;
+        private Integer failed;
+        private Boolean completed;
+        private List<ImportError> errors;
+    }
 }
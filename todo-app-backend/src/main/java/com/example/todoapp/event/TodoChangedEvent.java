@@ -0,0 +1,22 @@
+package com.example.todoapp.event;
+
+import com.example.todoapp.dto.TodoDTO;
+
+import java.util.List;
+
+// Todoの変更イベント（Todoを書き込むサービスが変更のたびに発行する）
+// upserted: 作成・更新後のTodo、deletedIds: 削除されたTodoのID
+public record TodoChangedEvent(Long userId, List<TodoDTO.Response> upserted, List<Long> deletedIds) {
+    
+    public static TodoChangedEvent upserted(Long userId, TodoDTO.Response todo) {
+        return new TodoChangedEvent(userId, List.of(todo), List.of());
+    }
+    
+    public static TodoChangedEvent deleted(Long userId, Long id) {
+        return new TodoChangedEvent(userId, List.of(), List.of(id));
+    }
+    
+    public boolean isEmpty() {
+        return upserted.isEmpty() && deletedIds.isEmpty();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.todoapp.event;
+
+// TodoChangedEvent によって進んだ変更バージョン（TodoVersionService が書き込みと同じトランザクション内で発行する）
+// version: この変更を含むバージョン
+public record TodoVersionChangedEvent(TodoChangedEvent change, long version) {
+    
+    public Long userId() {
+        return change.userId();
+    }
+}
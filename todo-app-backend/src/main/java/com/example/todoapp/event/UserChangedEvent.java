@@ -0,0 +1,6 @@
+package com.example.todoapp.event;
+
+// ユーザー情報の変更イベント（ユーザーを作成・更新するサービスが変更のたびに発行する）
+// username: 変更されたユーザーのユーザー名（名前を変更した場合は変更前と変更後の両方で発行する）
+public record UserChangedEvent(String username) {
+}
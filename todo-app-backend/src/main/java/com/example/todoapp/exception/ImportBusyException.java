@@ -0,0 +1,9 @@
+package com.example.todoapp.exception;
+
+// 同時に実行できる取り込みの数（todo.import.max-concurrent）を超えた場合に発生する（503で応答し、時間をおいて再試行させる）
+public class ImportBusyException extends RuntimeException {
+    
+    public ImportBusyException() {
+        super("他の取り込みを実行中です。しばらくしてから再度お試しください");
+    }
+}
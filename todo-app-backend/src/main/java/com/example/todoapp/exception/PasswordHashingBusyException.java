@@ -0,0 +1,9 @@
+package com.example.todoapp.exception;
+
+// パスワードハッシュ処理の待ち行列が満杯の場合に発生する（503で応答し、時間をおいて再試行させる）
+public class PasswordHashingBusyException extends RuntimeException {
+    
+    public PasswordHashingBusyException() {
+        super("混み合っています。しばらくしてから再度お試しください");
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.todoapp.instrumentation;
+
+// 現在のスレッドで実行されるSQLの集計範囲
+// try-with-resources で使い、終了時に外側の集計範囲に戻す（入れ子の範囲のSQLは外側には加算しない）
+public final class SqlCapture implements AutoCloseable {
+    
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+    
+    private final SqlStats stats = new SqlStats();
+    private final SqlStats previous;
+    
+    private SqlCapture() {
+        this.previous = CURRENT.get();
+        CURRENT.set(stats);
+    }
+    
+    public static SqlCapture begin() {
+        return new SqlCapture();
+    }
+    
+    // 集計中でなければ null
+    static SqlStats current() {
+        return CURRENT.get();
+    }
+    
+    public SqlStats stats() {
+        return stats;
+    }
+    
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
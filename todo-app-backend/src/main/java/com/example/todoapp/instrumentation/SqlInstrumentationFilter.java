@@ -0,0 +1,85 @@
+package com.example.todoapp.instrumentation;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// リクエストごとにSQLの実行回数・行数・DB時間を集計し、予算を超えたリクエストを実行したSQLの一覧とともに警告する
+// 認証フィルターのSQLも含めるため、Spring Securityより前で実行する
+// 集計はリクエストを処理したスレッドのSQLだけが対象で、非同期ディスパッチも集計しない
+// エクスポート（StreamingResponseBody）やSSEの配信のように別のスレッドで実行されるSQLは含まれない
+@Slf4j
+public class SqlInstrumentationFilter extends OncePerRequestFilter {
+    
+    private final int maxStatements;
+    private final Duration slowThreshold;
+    private final int repeatThreshold;
+    
+    public SqlInstrumentationFilter(int maxStatements, Duration slowThreshold, int repeatThreshold) {
+        this.maxStatements = maxStatements;
+        this.slowThreshold = slowThreshold;
+        this.repeatThreshold = repeatThreshold;
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        try (SqlCapture capture = SqlCapture.begin()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                SqlStats stats = capture.stats();
+                stats.setHandler(handlerName(request));
+                report(request, stats);
+            }
+        }
+    }
+    
+    private void report(HttpServletRequest request, SqlStats stats) {
+        if (stats.getStatementCount() == 0) {
+            return;
+        }
+        boolean tooMany = stats.getStatementCount() > maxStatements;
+        boolean tooSlow = stats.getDbTime().compareTo(slowThreshold) > 0;
+        boolean repeated = stats.getMaxRepeatCount() >= repeatThreshold;
+        
+        if (tooMany || tooSlow || repeated) {
+            log.warn("SQLの予算を超えました{}{}{}: {} {} ({}) {}",
+                    tooMany ? " [実行回数]" : "",
+                    tooSlow ? " [DB時間]" : "",
+                    repeated ? " [N+1の疑い]" : "",
+                    request.getMethod(),
+                    request.getRequestURI(),
+                    stats.getHandler(),
+                    stats.describe());
+        } else if (log.isDebugEnabled()) {
+            log.debug("SQL: {} {} ({}) statements={}, rows={}, dbTime={}ms",
+                    request.getMethod(),
+                    request.getRequestURI(),
+                    stats.getHandler(),
+                    stats.getStatementCount(),
+                    stats.getRowCount(),
+                    stats.getDbTime().toMillis());
+        }
+    }
+    
+    // リクエストを処理したコントローラーのメソッド名（DispatcherServlet がリクエスト属性に残したもの）
+    private static String handlerName(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return "-";
+    }
+}
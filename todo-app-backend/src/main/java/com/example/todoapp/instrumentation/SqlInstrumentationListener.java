@@ -0,0 +1,111 @@
+package com.example.todoapp.instrumentation;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// JDBCプロキシから呼ばれ、実行されたSQLを現在の集計範囲（SqlCapture）に記録する
+// 集計範囲の外で実行されたSQLは何もしない
+public class SqlInstrumentationListener implements QueryExecutionListener, MethodExecutionListener {
+    
+    private static final String START_NANOS = SqlInstrumentationListener.class.getName() + ".start";
+    // 集計中はすべてのSQLで使うため、正規表現は一度だけコンパイルする
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
+    // ExecutionInfo の経過時間はミリ秒単位のため、ナノ秒で計り直す
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (SqlCapture.current() != null) {
+            execInfo.addCustomValue(START_NANOS, System.nanoTime());
+        }
+    }
+    
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStats stats = SqlCapture.current();
+        if (stats == null) {
+            return;
+        }
+        Long startNanos = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsedNanos = startNanos != null
+                ? System.nanoTime() - startNanos
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        stats.recordStatement(shapeOf(execInfo, queryInfoList), elapsedNanos, updatedRows(execInfo.getResult()));
+    }
+    
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+    
+    // ResultSet から読み出した行を数える
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            SqlStats stats = SqlCapture.current();
+            if (stats != null) {
+                stats.recordRow();
+            }
+        }
+    }
+    
+    // SQL文（空白は1つにまとめる）とバインドパラメータの型。値はログに残さない
+    private static String shapeOf(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        StringBuilder sb = new StringBuilder();
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(WHITESPACE.matcher(queryInfo.getQuery().trim()).replaceAll(" "));
+            List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+            if (!parametersList.isEmpty()) {
+                sb.append(" ").append(parameterTypes(parametersList.get(0)));
+            }
+        }
+        if (execInfo.isBatch()) {
+            sb.append(" [batch x").append(execInfo.getBatchSize()).append("]");
+        }
+        return sb.toString();
+    }
+    
+    private static String parameterTypes(List<ParameterSetOperation> parameters) {
+        StringJoiner joiner = new StringJoiner(", ", "(", ")");
+        for (ParameterSetOperation parameter : parameters) {
+            Object[] args = parameter.getArgs();
+            if (ParameterSetOperation.isSetNullParameterOperation(parameter) || args.length < 2 || args[1] == null) {
+                joiner.add("null");
+            } else {
+                joiner.add(args[1].getClass().getSimpleName());
+            }
+        }
+        return joiner.toString();
+    }
+    
+    // 更新系のSQLで更新された行数（executeUpdate / executeBatch の戻り値）
+    private static long updatedRows(Object result) {
+        if (result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof Long count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.todoapp.instrumentation;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 1リクエスト（または SqlBudget で計測した処理）で実行されたSQLの集計
+// 同じスレッドからだけ更新される
+public class SqlStats {
+    
+    private String handler;
+    private int statementCount;
+    private long rowCount;
+    private long dbTimeNanos;
+    // キーはSQL文とバインドパラメータの型（値は含まない）
+    private final Map<String, Shape> shapes = new LinkedHashMap<>();
+    
+    void recordStatement(String shape, long elapsedNanos, long affectedRows) {
+        statementCount++;
+        dbTimeNanos += elapsedNanos;
+        rowCount += affectedRows;
+        shapes.computeIfAbsent(shape, key -> new Shape()).record(elapsedNanos);
+    }
+    
+    void recordRow() {
+        rowCount++;
+    }
+    
+    void setHandler(String handler) {
+        this.handler = handler;
+    }
+    
+    // リクエストを処理したコントローラーのメソッド（例: TodoController.toggleComplete）
+    public String getHandler() {
+        return handler;
+    }
+    
+    public int getStatementCount() {
+        return statementCount;
+    }
+    
+    // 読み出した行数と更新した行数の合計
+    public long getRowCount() {
+        return rowCount;
+    }
+    
+    public Duration getDbTime() {
+        return Duration.ofNanos(dbTimeNanos);
+    }
+    
+    public Map<String, Shape> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+    
+    // 同じ形のSQLが最も多く実行された回数（N+1 の検出用）
+    public int getMaxRepeatCount() {
+        return shapes.values().stream().mapToInt(Shape::getCount).max().orElse(0);
+    }
+    
+    // ログやアサーションのメッセージ用の一覧
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("statements=").append(statementCount)
+                .append(", rows=").append(rowCount)
+                .append(", dbTime=").append(Duration.ofNanos(dbTimeNanos).toMillis()).append("ms");
+        shapes.forEach((shape, stats) -> sb.append("\n  ")
+                .append(stats.getCount()).append("x ")
+                .append(Duration.ofNanos(stats.totalNanos).toMillis()).append("ms ")
+                .append(shape));
+        return sb.toString();
+    }
+    
+    public static class Shape {
+        
+        private int count;
+        private long totalNanos;
+        
+        private void record(long elapsedNanos) {
+            count++;
+            totalNanos += elapsedNanos;
+        }
+        
+        public int getCount() {
+            return count;
+        }
+        
+        public Duration getTotalTime() {
+            return Duration.ofNanos(totalNanos);
+        }
+    }
+}
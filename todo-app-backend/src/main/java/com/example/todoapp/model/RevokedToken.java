@@ -0,0 +1,43 @@
+package com.example.todoapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 失効させたトークン（ログアウト・漏洩時の失効）
+// 各ノードは revoked_at で差分を取り込み、トークンの有効期限を過ぎたものは定期的に削除する
+@Entity
+@Table(
+        name = "revoked_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_revoked_tokens_token_id", columnNames = "token_id"),
+        indexes = {
+                @Index(name = "idx_revoked_revoked_at", columnList = "revoked_at"),
+                @Index(name = "idx_revoked_expires_at", columnList = "expires_at")
+        }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // トークンのID（jti クレーム）
+    @Column(name = "token_id", nullable = false, length = 64)
+    private String tokenId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    // トークン自体の有効期限（これを過ぎたら記録は不要）
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
@@ -4,12 +4,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "todos")
+// 差分同期で updated_at の範囲検索を行うためのインデックス
+@Table(name = "todos", indexes = @Index(name = "idx_user_updated", columnList = "user_id, updated_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +34,8 @@ public class Todo {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
     
     @Column(name = "created_at", nullable = false, updatable = false)
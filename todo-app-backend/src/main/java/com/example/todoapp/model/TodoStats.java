@@ -0,0 +1,37 @@
+package com.example.todoapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// ユーザーごとのTodo件数（書き込みと同じトランザクションで差分を加算する）
+// created_today は stats_date の日に作成されたTodoの件数（日付が変わったら0から数え直す）
+@Entity
+@Table(name = "user_todo_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoStats {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(nullable = false)
+    private Long total;
+    
+    @Column(nullable = false)
+    private Long completed;
+    
+    @Column(name = "created_today", nullable = false)
+    private Long createdToday;
+    
+    @Column(name = "stats_date", nullable = false)
+    private LocalDate statsDate;
+}
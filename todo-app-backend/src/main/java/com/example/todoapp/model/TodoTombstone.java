@@ -0,0 +1,31 @@
+package com.example.todoapp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 削除されたTodoの記録（差分同期でクライアントに削除を伝えるため）
+// 保持期間を過ぎたものは定期的に削除（コンパクション）される
+@Entity
+@Table(name = "todo_tombstones", indexes = @Index(name = "idx_tombstone_user_deleted", columnList = "user_id, deleted_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoTombstone {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "todo_id", nullable = false)
+    private Long todoId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
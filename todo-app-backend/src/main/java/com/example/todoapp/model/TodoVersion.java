@@ -0,0 +1,26 @@
+package com.example.todoapp.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// ユーザーごとのTodo変更バージョン（Todoを書き込むたびに1ずつ増える）
+// ETagの元になり、再起動後や複数インスタンス間でも同じ値を返すためDBに保持する
+@Entity
+@Table(name = "user_todo_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoVersion {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,25 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    
+    // 起動時の読み込み（有効期限内のもの）
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+    
+    // 他のノードで失効したトークンの差分取り込み
+    List<RevokedToken> findByRevokedAtAfter(LocalDateTime since);
+    
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt < :threshold")
+    int deleteExpiredBefore(@Param("threshold") LocalDateTime threshold);
+}
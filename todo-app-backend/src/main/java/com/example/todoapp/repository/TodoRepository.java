@@ -1,19 +1,114 @@
 package com.example.todoapp.repository;
 
+import com.example.todoapp.dto.TodoDTO;
 import com.example.todoapp.model.Todo;
-import com.example.todoapp.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface TodoRepository extends JpaRepository<Todo, Long> {
+public interface TodoRepository extends JpaRepository<Todo, Long>, TodoRepositoryCustom {
+    
+    // エンティティとして読み出す場合は読み取り専用にしてスナップショット（ダーティチェック用）を作らない
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    List<Todo> findByUserIdOrderByCreatedAtDesc(Long userId);
+    
+    Optional<Todo> findByIdAndUserId(Long id, Long userId);
+    
+    List<Todo> findByUserIdAndCompleted(Long userId, Boolean completed);
+    
+    // 一括操作の対象（件数の差分を求めるため、書き込みまで行をロックする）
+    // デッドロックを避けるため、ロックはID順に取得する
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Todo t where t.user.id = :userId and t.id in :ids order by t.id")
+    List<Todo> findForUpdateByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+    
+    // レスポンス用の射影（エンティティを生成せずに読み出す）
+    @Query("""
+            select new com.example.todoapp.dto.TodoDTO$Response(
+                t.id, t.title, t.description, t.completed, t.createdAt, t.updatedAt)
+            from Todo t
+            where t.id = :id and t.user.id = :userId
+            """)
+    Optional<TodoDTO.Response> findResponseByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+    
+    // 検索結果のIDからレスポンスを読み出す（順序は呼び出し側で並べ直す）
+    @Query("""
+            select new com.example.todoapp.dto.TodoDTO$Response(
+                t.id, t.title, t.description, t.completed, t.createdAt, t.updatedAt)
+            from Todo t
+            where t.user.id = :userId and t.id in :ids
+            """)
+    List<TodoDTO.Response> findResponsesByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+    
+    // 差分同期用: since より後に作成・更新されたTodo（idx_user_updated で範囲検索）
+    @Query("""
+            select new com.example.todoapp.dto.TodoDTO$Response(
+                t.id, t.title, t.description, t.completed, t.createdAt, t.updatedAt)
+            from Todo t
+            where t.user.id = :userId and t.updatedAt > :since
+            order by t.updatedAt, t.id
+            """)
+    List<TodoDTO.Response> findResponsesUpdatedSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+    
+    // 完了状態をSELECTせずに反転する
+    @Modifying
+    @Query("""
+            update Todo t
+            set t.completed = case when t.completed = true then false else true end,
+                t.updatedAt = :updatedAt
+            where t.id = :id and t.user.id = :userId
+            """)
+    int toggleCompleted(@Param("id") Long id, @Param("userId") Long userId, @Param("updatedAt") LocalDateTime updatedAt);
     
-    List<Todo> findByUserOrderByCreatedAtDesc(User user);
+    // 完了状態と作成日時の範囲を条件に削除する（削除できた条件から件数の差分が決まるため、削除前にSELECTしない）
+    @Modifying
+    @Query("""
+            delete from Todo t
+            where t.id = :id and t.user.id = :userId and t.completed = :completed and t.createdAt >= :createdFrom
+            """)
+    int deleteIfCreatedSince(
+            @Param("id") Long id,
+            @Param("userId") Long userId,
+            @Param("completed") boolean completed,
+            @Param("createdFrom") LocalDateTime createdFrom
+    );
     
-    Optional<Todo> findByIdAndUser(Long id, User user);
+    @Modifying
+    @Query("""
+            delete from Todo t
+            where t.id = :id and t.user.id = :userId and t.completed = :completed and t.createdAt < :createdBefore
+            """)
+    int deleteIfCreatedBefore(
+            @Param("id") Long id,
+            @Param("userId") Long userId,
+            @Param("completed") boolean completed,
+            @Param("createdBefore") LocalDateTime createdBefore
+    );
     
-    List<Todo> findByUserAndCompleted(User user, Boolean completed);
+    // エクスポート用のストリーム読み出し（全件をメモリに載せずに1行ずつ取得する）
+    // MySQLでフェッチサイズを有効にするには接続URLに useCursorFetch=true が必要
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("select t from Todo t where t.user.id = :userId order by t.createdAt desc, t.id desc")
+    Stream<Todo> streamByUserId(@Param("userId") Long userId);
 }
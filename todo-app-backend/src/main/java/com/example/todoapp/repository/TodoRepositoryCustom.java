@@ -0,0 +1,39 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.dto.TodoDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+public interface TodoRepositoryCustom {
+    
+    // 一覧用の射影クエリ（エンティティを生成せず TodoDTO.Response に直接読み出す）
+    // (created_at, id) の降順で、afterCreatedAt/afterId を指定するとその位置より後ろからシークする
+    // completed が null なら絞り込みなし、limit が null なら全件
+    // fields に含まれない項目は読み出さずに null とする（並び順とカーソルに使う id・createdAt は常に読み出す）
+    List<TodoDTO.Response> findResponses(
+            Long userId,
+            Boolean completed,
+            LocalDateTime afterCreatedAt,
+            Long afterId,
+            Integer limit,
+            Set<TodoDTO.Field> fields
+    );
+    
+    // null 以外の項目だけを更新する（SELECTせずに1文のUPDATEで実行）
+    // 戻り値は更新件数（0件なら対象なし）
+    int updatePartial(Long id, Long userId, String title, String description, Boolean completed, LocalDateTime updatedAt);
+    
+    // 現在の完了状態が completedBefore の場合だけ更新する（0件なら対象なし、または完了状態が異なる）
+    // 更新できた場合は完了状態が completedBefore から completed に変わったことが確定する
+    int updatePartialIfCompleted(
+            Long id,
+            Long userId,
+            String title,
+            String description,
+            boolean completed,
+            boolean completedBefore,
+            LocalDateTime updatedAt
+    );
+}
@@ -0,0 +1,124 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.model.Todo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+class TodoRepositoryCustomImpl implements TodoRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<TodoDTO.Response> findResponses(
+            Long userId,
+            Boolean completed,
+            LocalDateTime afterCreatedAt,
+            Long afterId,
+            Integer limit,
+            Set<TodoDTO.Field> fields
+    ) {
+        // 条件ごとにJPQLを組み立てる（条件の数だけ文字列が異なり、クエリプランはHibernate側でキャッシュされる）
+        StringBuilder jpql = new StringBuilder("select new com.example.todoapp.dto.TodoDTO$Response(t.id, ")
+                .append(column(fields, TodoDTO.Field.TITLE, "t.title", "String")).append(", ")
+                .append(column(fields, TodoDTO.Field.DESCRIPTION, "t.description", "String")).append(", ")
+                .append(column(fields, TodoDTO.Field.COMPLETED, "t.completed", "Boolean")).append(", ")
+                .append("t.createdAt, ")
+                .append(column(fields, TodoDTO.Field.UPDATED_AT, "t.updatedAt", "LocalDateTime"))
+                .append(") from Todo t where t.user.id = :userId");
+        if (completed != null) {
+            jpql.append(" and t.completed = :completed");
+        }
+        if (afterCreatedAt != null) {
+            jpql.append(" and (t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id))");
+        }
+        jpql.append(" order by t.createdAt desc, t.id desc");
+        
+        TypedQuery<TodoDTO.Response> query = entityManager.createQuery(jpql.toString(), TodoDTO.Response.class)
+                .setHint(HINT_READ_ONLY, true)
+                .setParameter("userId", userId);
+        if (completed != null) {
+            query.setParameter("completed", completed);
+        }
+        if (afterCreatedAt != null) {
+            query.setParameter("createdAt", afterCreatedAt);
+            query.setParameter("id", afterId);
+        }
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+    
+    // 読み出さない項目は型付きの null にする（コンストラクタの引数の型を合わせる）
+    private static String column(Set<TodoDTO.Field> fields, TodoDTO.Field field, String path, String type) {
+        return fields.contains(field) ? path : "cast(null as " + type + ")";
+    }
+    
+    @Override
+    public int updatePartial(Long id, Long userId, String title, String description, Boolean completed, LocalDateTime updatedAt) {
+        return updatePartial(id, userId, title, description, completed, null, updatedAt);
+    }
+    
+    @Override
+    public int updatePartialIfCompleted(
+            Long id,
+            Long userId,
+            String title,
+            String description,
+            boolean completed,
+            boolean completedBefore,
+            LocalDateTime updatedAt
+    ) {
+        return updatePartial(id, userId, title, description, completed, completedBefore, updatedAt);
+    }
+    
+    private int updatePartial(
+            Long id,
+            Long userId,
+            String title,
+            String description,
+            Boolean completed,
+            Boolean completedBefore,
+            LocalDateTime updatedAt
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Todo> update = cb.createCriteriaUpdate(Todo.class);
+        Root<Todo> todo = update.from(Todo.class);
+        
+        // 指定された項目のみ SET 句に含める
+        if (title != null) {
+            update.set(todo.<String>get("title"), title);
+        }
+        if (description != null) {
+            update.set(todo.<String>get("description"), description);
+        }
+        if (completed != null) {
+            update.set(todo.<Boolean>get("completed"), completed);
+        }
+        update.set(todo.<LocalDateTime>get("updatedAt"), updatedAt);
+        
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.equal(todo.get("id"), id));
+        where.add(cb.equal(todo.get("user").get("id"), userId));
+        if (completedBefore != null) {
+            where.add(cb.equal(todo.get("completed"), completedBefore));
+        }
+        update.where(where.toArray(Predicate[]::new));
+        
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.model.TodoStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TodoStatsRepository extends JpaRepository<TodoStats, Long> {
+    
+    // 差分を加算する（日付が変わっていれば created_today は今回の差分から数え直す）
+    @Modifying
+    @Query("""
+            update TodoStats s
+            set s.total = s.total + :total,
+                s.completed = s.completed + :completed,
+                s.createdToday = case when s.statsDate = :today then s.createdToday + :createdToday else :createdToday end,
+                s.statsDate = :today
+            where s.userId = :userId
+            """)
+    int addDelta(
+            @Param("userId") Long userId,
+            @Param("total") long total,
+            @Param("completed") long completed,
+            @Param("createdToday") long createdToday,
+            @Param("today") LocalDate today
+    );
+    
+    // 行がないユーザーは todos から数えて作成し、あれば差分を加算する（ユーザーごとの初回と、件数の取得で行がない場合）
+    // 初回の書き込みが同時に実行された場合、後の書き込みは先の行の作成を待ってから差分の加算になる
+    // （先の書き込みは後の書き込みのTodoを数えないため、二重に数えることはない）
+    // created_today は stats_date を更新する前の値で判定するため、stats_date より先に代入する
+    @Modifying
+    @Query(value = """
+            insert into user_todo_stats (user_id, total, completed, created_today, stats_date)
+            select :userId, c.cnt_total, c.cnt_completed, c.cnt_created_today, :today
+            from (
+                select count(*) as cnt_total,
+                       coalesce(sum(case when completed then 1 else 0 end), 0) as cnt_completed,
+                       coalesce(sum(case when created_at >= :todayStart then 1 else 0 end), 0) as cnt_created_today
+                from todos
+                where user_id = :userId
+            ) c
+            on duplicate key update
+                total = total + :total,
+                completed = completed + :completed,
+                created_today = case when stats_date = :today then created_today + :createdToday else :createdToday end,
+                stats_date = :today
+            """, nativeQuery = true)
+    int upsertFromTodos(
+            @Param("userId") Long userId,
+            @Param("total") long total,
+            @Param("completed") long completed,
+            @Param("createdToday") long createdToday,
+            @Param("today") LocalDate today,
+            @Param("todayStart") LocalDateTime todayStart
+    );
+    
+    // 照合用: 指定したユーザーの件数を todos から数える（ユーザーID, 全件, 完了, 今日作成）
+    @Query(value = """
+            select user_id,
+                   count(*),
+                   coalesce(sum(case when completed then 1 else 0 end), 0),
+                   coalesce(sum(case when created_at >= :todayStart then 1 else 0 end), 0)
+            from todos
+            where user_id in (:userIds)
+            group by user_id
+            """, nativeQuery = true)
+    List<Object[]> countByUserIds(@Param("userIds") Collection<Long> userIds, @Param("todayStart") LocalDateTime todayStart);
+    
+    // 照合用のページング（user_id 順）
+    List<TodoStats> findTop500ByUserIdGreaterThanOrderByUserId(Long userId);
+    
+    // 照合結果で置き換える（読み取り後に書き込みがあった行は更新しない）
+    @Modifying
+    @Query("""
+            update TodoStats s
+            set s.total = :total, s.completed = :completed, s.createdToday = :createdToday, s.statsDate = :today
+            where s.userId = :userId
+              and s.total = :expectedTotal
+              and s.completed = :expectedCompleted
+              and s.createdToday = :expectedCreatedToday
+              and s.statsDate = :expectedDate
+            """)
+    int repair(
+            @Param("userId") Long userId,
+            @Param("total") long total,
+            @Param("completed") long completed,
+            @Param("createdToday") long createdToday,
+            @Param("today") LocalDate today,
+            @Param("expectedTotal") long expectedTotal,
+            @Param("expectedCompleted") long expectedCompleted,
+            @Param("expectedCreatedToday") long expectedCreatedToday,
+            @Param("expectedDate") LocalDate expectedDate
+    );
+}
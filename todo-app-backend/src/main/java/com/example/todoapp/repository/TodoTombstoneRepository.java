@@ -0,0 +1,25 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.model.TodoTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TodoTombstoneRepository extends JpaRepository<TodoTombstone, Long> {
+    
+    @Query("""
+            select distinct t.todoId from TodoTombstone t
+            where t.userId = :userId and t.deletedAt > :since
+            """)
+    List<Long> findDeletedIdsSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+    
+    @Modifying
+    @Query("delete from TodoTombstone t where t.deletedAt < :threshold")
+    int deleteOlderThan(@Param("threshold") LocalDateTime threshold);
+}
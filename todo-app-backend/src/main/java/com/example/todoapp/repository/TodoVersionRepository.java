@@ -0,0 +1,26 @@
+package com.example.todoapp.repository;
+
+import com.example.todoapp.model.TodoVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TodoVersionRepository extends JpaRepository<TodoVersion, Long> {
+    
+    @Query("select v.version from TodoVersion v where v.userId = :userId")
+    Optional<Long> findVersion(@Param("userId") Long userId);
+    
+    // 行がなければバージョン1で作成し、あれば1つ進める（1文で行うため、初回の書き込みが同時に実行されても競合しない）
+    @Modifying
+    @Query(value = """
+            insert into user_todo_versions (user_id, version)
+            values (:userId, 1)
+            on duplicate key update version = version + 1
+            """, nativeQuery = true)
+    int increment(@Param("userId") Long userId);
+}
@@ -0,0 +1,93 @@
+package com.example.todoapp.search;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.event.TodoVersionChangedEvent;
+import com.example.todoapp.repository.TodoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+// プロセス内のユーザーごとの転置インデックス（既定）
+// 最初の検索でユーザーのTodoを読み込んで構築し、以降は書き込みのコミット後に差分を反映する
+// インデックスは構築・反映した時点の変更バージョンとともに保持し、現在のバージョンより古い場合は作り直す
+// （他のインスタンスの書き込みは、todo.version.refresh-interval でバージョンを読み直した後の検索で反映される）
+// 作り直しは検索のリクエスト内でユーザーのTodoをすべて読むため、複数インスタンスで書き込みが多い構成では todo.search.type=mysql を使う
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "todo.search.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTodoSearchIndex implements TodoSearchIndex, MeterBinder {
+    
+    private final TodoRepository todoRepository;
+    private final Cache<Long, VersionedIndex> indexes;
+    
+    public InMemoryTodoSearchIndex(
+            TodoRepository todoRepository,
+            @Value("${todo.search.memory.max-weight:256MB}") DataSize maxWeight,
+            @Value("${todo.search.memory.ttl:PT30M}") Duration ttl,
+            @Value("${todo.datasource.replicas[0].url:}") String replicaUrl
+    ) {
+        this.todoRepository = todoRepository;
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .weigher((Long userId, VersionedIndex entry) -> (int) Math.min(entry.index().estimatedBytes(), Integer.MAX_VALUE))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // レプリカを使う構成は複数インスタンスで動かしていることが多いため、起動時に知らせる
+        if (!replicaUrl.isEmpty()) {
+            log.warn("プロセス内の検索インデックス（todo.search.type=memory）は他のインスタンスの書き込みのたびに作り直されます。"
+                    + "複数インスタンス構成では todo.search.type=mysql を使用してください");
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, indexes, "todo-search-index");
+    }
+    
+    // 構築は呼び出し元のトランザクション内、キャッシュのロックの外で行う
+    // 構築中により新しいバージョンのインデックスが格納されていればそちらを使う
+    @Override
+    public Page search(Long userId, long version, SearchQuery query, int offset, int limit) {
+        VersionedIndex cached = indexes.getIfPresent(userId);
+        if (cached == null || cached.version() < version) {
+            VersionedIndex built = new VersionedIndex(version, new TodoTextIndex(
+                    todoRepository.findResponses(userId, null, null, null, null, TodoDTO.Field.ALL)));
+            cached = indexes.asMap().merge(userId, built, (current, candidate) ->
+                    current.version() >= candidate.version() ? current : candidate);
+        }
+        return cached.index().search(query.terms(), offset, limit);
+    }
+    
+    // 直前のバージョンでないインデックスは、間の変更（他のインスタンスの書き込みなど）を取りこぼしているため破棄する
+    // 構築中に反映できなかった変更は、次の検索でバージョンが古いと判定されて作り直される
+    // 再計算した重みで上限を超えた場合は追い出される
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTodoVersionChanged(TodoVersionChangedEvent event) {
+        indexes.asMap().computeIfPresent(event.userId(), (id, current) -> {
+            if (current.version() >= event.version()) {
+                return current;
+            }
+            if (current.version() != event.version() - 1) {
+                return null;
+            }
+            event.change().upserted().forEach(current.index()::put);
+            event.change().deletedIds().forEach(current.index()::remove);
+            return new VersionedIndex(event.version(), current.index());
+        });
+    }
+    
+    private record VersionedIndex(long version, TodoTextIndex index) {
+    }
+}
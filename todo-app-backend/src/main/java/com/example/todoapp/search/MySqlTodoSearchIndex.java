@@ -0,0 +1,106 @@
+package com.example.todoapp.search;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.repository.TodoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// MySQLの FULLTEXT インデックス（ngram パーサー）による検索（todo.search.type=mysql）
+// database/schema.sql の ft_todos_title_description が必要
+// インデックスはMySQLが書き込みと同じトランザクションで更新するため、複数インスタンス構成でも常に最新の結果を返す
+@Component
+@ConditionalOnProperty(name = "todo.search.type", havingValue = "mysql")
+@RequiredArgsConstructor
+public class MySqlTodoSearchIndex implements TodoSearchIndex {
+    
+    // ngram_token_size（既定 2）より短い検索語は FULLTEXT で検索できないため LIKE で絞り込む
+    private static final int NGRAM_TOKEN_SIZE = 2;
+    
+    private static final String MATCH = "match(title, description) against (:query in boolean mode)";
+    
+    private final EntityManager entityManager;
+    private final TodoRepository todoRepository;
+    
+    @Override
+    public Page search(Long userId, long version, SearchQuery query, int offset, int limit) {
+        // 各検索語をフレーズとして必須にする（ngram パーサーはフレーズを連続した n-gram として照合する）
+        StringBuilder booleanQuery = new StringBuilder();
+        List<String> likePatterns = new ArrayList<>();
+        for (String term : query.terms()) {
+            String phrase = term.replace("\"", "");
+            if (phrase.length() >= NGRAM_TOKEN_SIZE) {
+                booleanQuery.append(booleanQuery.isEmpty() ? "" : " ").append("+\"").append(phrase).append('"');
+            } else if (!phrase.isEmpty()) {
+                likePatterns.add("%" + escapeLike(phrase) + "%");
+            }
+        }
+        boolean fullText = !booleanQuery.isEmpty();
+        if (!fullText && likePatterns.isEmpty()) {
+            return new Page(List.of(), 0);
+        }
+        
+        StringBuilder where = new StringBuilder(" from todos where user_id = :userId");
+        if (fullText) {
+            where.append(" and ").append(MATCH);
+        }
+        for (int i = 0; i < likePatterns.size(); i++) {
+            where.append(" and (title like :like").append(i).append(" or description like :like").append(i).append(')');
+        }
+        
+        Query count = entityManager.createNativeQuery("select count(*)" + where);
+        bind(count, userId, booleanQuery, likePatterns);
+        long total = ((Number) count.getSingleResult()).longValue();
+        if (total <= offset) {
+            return new Page(List.of(), total);
+        }
+        
+        // 関連度の降順、同じ関連度なら新しい順（一覧と同じ並び）
+        Query select = entityManager.createNativeQuery(
+                "select id, " + (fullText ? MATCH : "0") + " as score" + where
+                        + " order by score desc, created_at desc, id desc")
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        bind(select, userId, booleanQuery, likePatterns);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = select.getResultList();
+        if (rows.isEmpty()) {
+            return new Page(List.of(), total);
+        }
+        
+        List<Long> ids = rows.stream().map(row -> ((Number) row[0]).longValue()).toList();
+        Map<Long, TodoDTO.Response> todos = todoRepository.findResponsesByUserIdAndIdIn(userId, ids).stream()
+                .collect(Collectors.toMap(TodoDTO.Response::getId, Function.identity()));
+        List<Hit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            // 2つのクエリの間に削除されたTodoは除く
+            TodoDTO.Response todo = todos.get(((Number) row[0]).longValue());
+            if (todo != null) {
+                hits.add(new Hit(todo, ((Number) row[1]).doubleValue()));
+            }
+        }
+        return new Page(hits, total);
+    }
+    
+    private static void bind(Query query, Long userId, CharSequence booleanQuery, List<String> likePatterns) {
+        query.setParameter("userId", userId);
+        if (!booleanQuery.isEmpty()) {
+            query.setParameter("query", booleanQuery.toString());
+        }
+        for (int i = 0; i < likePatterns.size(); i++) {
+            query.setParameter("like" + i, likePatterns.get(i));
+        }
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
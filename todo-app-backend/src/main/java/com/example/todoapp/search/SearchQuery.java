@@ -0,0 +1,33 @@
+package com.example.todoapp.search;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// 正規化済みの検索語（空白区切り、すべての語を含むTodoが一致する）
+public record SearchQuery(List<String> terms) {
+    
+    public static SearchQuery parse(String query, int maxLength, int maxTerms) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("検索語を指定してください");
+        }
+        if (query.length() > maxLength) {
+            throw new IllegalArgumentException("検索語は" + maxLength + "文字以内で指定してください");
+        }
+        
+        // 全角スペースは正規化で半角になるため、区切りとして扱われる
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : SearchText.normalize(query).split("\\s+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("検索語を指定してください");
+        }
+        if (terms.size() > maxTerms) {
+            throw new IllegalArgumentException("検索語は" + maxTerms + "個以内で指定してください");
+        }
+        return new SearchQuery(List.copyOf(terms));
+    }
+}
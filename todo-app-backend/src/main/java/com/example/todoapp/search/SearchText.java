@@ -0,0 +1,110 @@
+package com.example.todoapp.search;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+
+// 検索用の文字列の正規化と、検索結果のハイライト
+// 全角英数字・半角カナ等は NFKC で統一し、英字は小文字にそろえる
+public final class SearchText {
+    
+    private static final String ELLIPSIS = "…";
+    
+    private SearchText() {
+    }
+    
+    // 正規化の必要がない文字列は同じインスタンスを返す（インデックスで元の文字列を共有する）
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String composed = Normalizer.isNormalized(text, Normalizer.Form.NFKC)
+                ? text
+                : Normalizer.normalize(text, Normalizer.Form.NFKC);
+        return composed.toLowerCase(Locale.ROOT);
+    }
+    
+    // 文字列全体をHTMLエスケープし、検索語の出現箇所を <mark> で囲む
+    public static String highlight(String text, List<String> terms) {
+        if (text == null) {
+            return null;
+        }
+        String display = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        return render(display, marks(display, terms), 0, display.length());
+    }
+    
+    // 最初に検索語が出現する位置の前後 length 文字程度を切り出してハイライトする
+    // 出現しない場合（タイトルだけに一致した場合）は先頭から切り出す
+    public static String snippet(String text, List<String> terms, int length) {
+        if (text == null) {
+            return null;
+        }
+        String display = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        boolean[] marks = marks(display, terms);
+        
+        int first = 0;
+        while (first < marks.length && !marks[first]) {
+            first++;
+        }
+        int start = first < marks.length ? Math.max(0, first - length / 3) : 0;
+        int end = Math.min(display.length(), start + length);
+        start = Math.max(0, end - length);
+        // サロゲートペアの途中で切らない
+        if (start > 0 && Character.isLowSurrogate(display.charAt(start))) {
+            start--;
+        }
+        if (end < display.length() && Character.isLowSurrogate(display.charAt(end))) {
+            end++;
+        }
+        
+        StringBuilder html = new StringBuilder();
+        if (start > 0) {
+            html.append(ELLIPSIS);
+        }
+        html.append(render(display, marks, start, end));
+        if (end < display.length()) {
+            html.append(ELLIPSIS);
+        }
+        return html.toString();
+    }
+    
+    // 検索語（正規化済み）と大文字・小文字を区別せずに一致する文字の位置
+    private static boolean[] marks(String display, List<String> terms) {
+        boolean[] marks = new boolean[display.length()];
+        for (String term : terms) {
+            int last = display.length() - term.length();
+            for (int i = 0; i <= last; i++) {
+                if (display.regionMatches(true, i, term, 0, term.length())) {
+                    for (int j = i; j < i + term.length(); j++) {
+                        marks[j] = true;
+                    }
+                }
+            }
+        }
+        return marks;
+    }
+    
+    private static String render(String display, boolean[] marks, int start, int end) {
+        StringBuilder html = new StringBuilder(end - start + 16);
+        boolean open = false;
+        for (int i = start; i < end; i++) {
+            if (marks[i] != open) {
+                html.append(open ? "</mark>" : "<mark>");
+                open = marks[i];
+            }
+            char c = display.charAt(i);
+            switch (c) {
+                case '&' -> html.append("&amp;");
+                case '<' -> html.append("&lt;");
+                case '>' -> html.append("&gt;");
+                case '"' -> html.append("&quot;");
+                case '\'' -> html.append("&#39;");
+                default -> html.append(c);
+            }
+        }
+        if (open) {
+            html.append("</mark>");
+        }
+        return html.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.todoapp.search;
+
+import com.example.todoapp.dto.TodoDTO;
+
+import java.util.List;
+
+// ユーザーのTodo（タイトル・説明）の全文検索
+// 既定はプロセス内の転置インデックス（InMemoryTodoSearchIndex）で、MySQLでは FULLTEXT インデックス（MySqlTodoSearchIndex）に切り替えられる
+public interface TodoSearchIndex {
+    
+    // すべての検索語を含むTodoをスコアの降順で offset 件目から最大 limit 件返す
+    // version はユーザーの現在の変更バージョン（TodoVersionService）で、プロセス内のインデックスが古いかどうかの判定に使う
+    Page search(Long userId, long version, SearchQuery query, int offset, int limit);
+    
+    // 検索結果の1件（score は実装ごとの尺度で、同じ実装の結果の中でのみ比較できる）
+    record Hit(TodoDTO.Response todo, double score) {
+    }
+    
+    // total はページングしない場合の全件数
+    record Page(List<Hit> hits, long total) {
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.todoapp.search;
+
+import com.example.todoapp.dto.TodoDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// 1ユーザー分のTodoの転置インデックス
+// 分かち書きをせず、正規化した文字の1-gramと2-gramを索引にする（日本語も英語も同じ扱い）
+// 検索語の n-gram の転置リストの積集合を候補とし、候補の本文に検索語が含まれることを確かめてから順位付けする
+final class TodoTextIndex {
+    
+    // BM25F のパラメーター（長さの補正は項目ごとに行い、タイトルの出現は説明の TITLE_WEIGHT 倍に数える）
+    private static final double K1 = 1.2;
+    // タイトルは短く長さの差が意味を持ちにくいため、長さによる補正を弱くする
+    private static final double TITLE_B = 0.3;
+    private static final double DESCRIPTION_B = 0.75;
+    private static final int TITLE_WEIGHT = 3;
+    
+    // 削除済みの文書番号がこの数と全体の半分を超えたら番号を詰め直す
+    private static final int COMPACTION_THRESHOLD = 1024;
+    
+    // 文書1件あたりの固定部分と、転置リストの1要素の推定バイト数
+    private static final int DOCUMENT_OVERHEAD = 200;
+    private static final int POSTING_BYTES = 4;
+    
+    private static final Comparator<Scored> RANK_ORDER = Comparator
+            .comparingDouble(Scored::score)
+            .thenComparing(scored -> scored.document().todo().getCreatedAt())
+            .thenComparing(scored -> scored.document().todo().getId());
+    
+    // 文書番号 → 文書（削除・更新された番号は null）
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<Long, Integer> numbers = new HashMap<>();
+    // n-gram → 文書番号の昇順のリスト（削除済みの番号を含むことがある）
+    private Map<Integer, IntList> postings = new HashMap<>();
+    private int removed;
+    private long totalTitleLength;
+    private long totalDescriptionLength;
+    private volatile long estimatedBytes;
+    
+    TodoTextIndex(Collection<TodoDTO.Response> todos) {
+        todos.forEach(this::add);
+    }
+    
+    synchronized void put(TodoDTO.Response todo) {
+        remove0(todo.getId());
+        add(todo);
+        compactIfNeeded();
+    }
+    
+    synchronized void remove(Long id) {
+        remove0(id);
+        compactIfNeeded();
+    }
+    
+    synchronized int size() {
+        return numbers.size();
+    }
+    
+    // キャッシュの重み付け用（ロックを取らずに読める概算値）
+    long estimatedBytes() {
+        return estimatedBytes;
+    }
+    
+    synchronized TodoSearchIndex.Page search(List<String> terms, int offset, int limit) {
+        if (numbers.isEmpty()) {
+            return new TodoSearchIndex.Page(List.of(), 0);
+        }
+        
+        // 検索語ごとの文書頻度は、その語の n-gram の転置リストの最小の長さで近似する
+        List<IntList> lists = new ArrayList<>();
+        double[] idf = new double[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            int df = Integer.MAX_VALUE;
+            for (int key : grams(terms.get(t))) {
+                IntList list = postings.get(key);
+                if (list == null) {
+                    return new TodoSearchIndex.Page(List.of(), 0);
+                }
+                lists.add(list);
+                df = Math.min(df, list.size);
+            }
+            df = Math.min(df, numbers.size());
+            idf[t] = Math.log(1 + (numbers.size() - df + 0.5) / (df + 0.5));
+        }
+        
+        // 短いリストから順に積集合をとる
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int[] candidates = Arrays.copyOf(lists.get(0).data, lists.get(0).size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(candidates, count, lists.get(i));
+        }
+        
+        // 上位 offset + limit 件だけをヒープに残す
+        double averageTitleLength = Math.max(1, (double) totalTitleLength / numbers.size());
+        double averageDescriptionLength = Math.max(1, (double) totalDescriptionLength / numbers.size());
+        int keep = offset + limit;
+        PriorityQueue<Scored> top = new PriorityQueue<>(Math.min(keep, 1024) + 1, RANK_ORDER);
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            Document document = documents.get(candidates[i]);
+            if (document == null) {
+                continue;
+            }
+            double score = score(document, terms, idf, averageTitleLength, averageDescriptionLength);
+            if (score < 0) {
+                continue;
+            }
+            total++;
+            top.add(new Scored(document, score));
+            if (top.size() > keep) {
+                top.poll();
+            }
+        }
+        
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(RANK_ORDER.reversed());
+        List<TodoSearchIndex.Hit> hits = new ArrayList<>();
+        for (int i = offset; i < ranked.size(); i++) {
+            hits.add(new TodoSearchIndex.Hit(ranked.get(i).document().todo(), ranked.get(i).score()));
+        }
+        return new TodoSearchIndex.Page(hits, total);
+    }
+    
+    // いずれかの検索語が含まれない場合（n-gram がそろっているだけの誤検出）は -1
+    private static double score(
+            Document document,
+            List<String> terms,
+            double[] idf,
+            double averageTitleLength,
+            double averageDescriptionLength
+    ) {
+        double titleNorm = 1 - TITLE_B + TITLE_B * document.title().length() / averageTitleLength;
+        double descriptionNorm = 1 - DESCRIPTION_B + DESCRIPTION_B * document.description().length() / averageDescriptionLength;
+        double score = 0;
+        for (int t = 0; t < terms.size(); t++) {
+            int inTitle = occurrences(document.title(), terms.get(t));
+            int inDescription = occurrences(document.description(), terms.get(t));
+            if (inTitle == 0 && inDescription == 0) {
+                return -1;
+            }
+            double tf = TITLE_WEIGHT * inTitle / titleNorm + inDescription / descriptionNorm;
+            score += idf[t] * tf * (K1 + 1) / (tf + K1);
+        }
+        return score;
+    }
+    
+    private static int occurrences(String text, String term) {
+        int count = 0;
+        for (int i = text.indexOf(term); i >= 0; i = text.indexOf(term, i + term.length())) {
+            count++;
+        }
+        return count;
+    }
+    
+    // candidates（昇順）のうち list にも含まれるものを前に詰め、その件数を返す
+    // list の方が十分長い場合は指数探索で読み飛ばす
+    private static int intersect(int[] candidates, int count, IntList list) {
+        int[] data = list.data;
+        int size = list.size;
+        int position = 0;
+        int kept = 0;
+        for (int i = 0; i < count && position < size; i++) {
+            int target = candidates[i];
+            if (data[position] < target) {
+                int step = 1;
+                int low = position;
+                while (position + step < size && data[position + step] < target) {
+                    low = position + step;
+                    step <<= 1;
+                }
+                int high = Math.min(position + step, size - 1);
+                int found = Arrays.binarySearch(data, low, high + 1, target);
+                position = found >= 0 ? found : -found - 1;
+                if (position >= size) {
+                    break;
+                }
+            }
+            if (data[position] == target) {
+                candidates[kept++] = target;
+                position++;
+            }
+        }
+        return kept;
+    }
+    
+    private void add(TodoDTO.Response todo) {
+        String title = SearchText.normalize(todo.getTitle());
+        String description = SearchText.normalize(todo.getDescription());
+        int number = documents.size();
+        documents.add(new Document(todo, title, description));
+        numbers.put(todo.getId(), number);
+        totalTitleLength += title.length();
+        totalDescriptionLength += description.length();
+        
+        // 同じ文書の同じ n-gram は1回だけ登録する（番号は常に末尾に追加されるため昇順が保たれる）
+        int[] keys = documentGrams(title, description);
+        for (int key : keys) {
+            postings.computeIfAbsent(key, k -> new IntList()).add(number);
+        }
+        estimatedBytes += DOCUMENT_OVERHEAD
+                + (todo.getTitle() != null ? todo.getTitle().length() * 2L : 0)
+                + (todo.getDescription() != null ? todo.getDescription().length() * 2L : 0)
+                + (title != todo.getTitle() ? title.length() * 2L : 0)
+                + (description != todo.getDescription() ? description.length() * 2L : 0)
+                + (long) keys.length * POSTING_BYTES;
+    }
+    
+    // 転置リストからは取り除かず、検索時に読み飛ばす
+    private void remove0(Long id) {
+        Integer number = numbers.remove(id);
+        if (number == null) {
+            return;
+        }
+        Document document = documents.set(number, null);
+        totalTitleLength -= document.title().length();
+        totalDescriptionLength -= document.description().length();
+        removed++;
+    }
+    
+    private void compactIfNeeded() {
+        if (removed < COMPACTION_THRESHOLD || removed * 2 < documents.size()) {
+            return;
+        }
+        List<Document> live = documents.stream().filter(document -> document != null).toList();
+        documents.clear();
+        numbers.clear();
+        postings = new HashMap<>();
+        removed = 0;
+        totalTitleLength = 0;
+        totalDescriptionLength = 0;
+        estimatedBytes = 0;
+        live.forEach(document -> add(document.todo()));
+    }
+    
+    private static int[] documentGrams(String title, String description) {
+        int[] keys = new int[(title.length() + description.length()) * 2];
+        int count = collectGrams(title, keys, 0);
+        count = collectGrams(description, keys, count);
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || keys[distinct - 1] != keys[i]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+    
+    // 検索語の n-gram（1文字なら1-gram、2文字以上なら2-gram）
+    private static int[] grams(String term) {
+        if (term.length() == 1) {
+            return new int[] { unigram(term.charAt(0)) };
+        }
+        int[] keys = new int[term.length() - 1];
+        for (int i = 0; i + 1 < term.length(); i++) {
+            keys[i] = bigram(term.charAt(i), term.charAt(i + 1));
+        }
+        return keys;
+    }
+    
+    // 空白をまたぐ n-gram は検索語に現れないため登録しない
+    private static int collectGrams(String text, int[] keys, int count) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || Character.isISOControl(c)) {
+                continue;
+            }
+            keys[count++] = unigram(c);
+            if (i + 1 < text.length()) {
+                char next = text.charAt(i + 1);
+                if (!Character.isWhitespace(next) && !Character.isISOControl(next)) {
+                    keys[count++] = bigram(c, next);
+                }
+            }
+        }
+        return count;
+    }
+    
+    // 1-gram は上位16ビットが0（制御文字は登録しないため2-gramと衝突しない）
+    private static int unigram(char c) {
+        return c;
+    }
+    
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+    
+    private record Document(TodoDTO.Response todo, String title, String description) {
+    }
+    
+    private record Scored(Document document, double score) {
+    }
+    
+    // int の可変長配列（Integer のボックス化を避ける）
+    private static final class IntList {
+        
+        private int[] data = new int[4];
+        private int size;
+        
+        private void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size + (size >> 1));
+            }
+            data[size++] = value;
+        }
+    }
+}
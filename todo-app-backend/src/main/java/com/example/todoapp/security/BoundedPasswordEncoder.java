@@ -0,0 +1,160 @@
+package com.example.todoapp.security;
+
+import com.example.todoapp.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// BCryptの計算を専用の固定サイズのスレッドプールで実行するPasswordEncoder
+// ログインが集中してもハッシュ計算に使うCPUはプールサイズ分に限られ、他のAPIのリクエストが遅くならない
+// 待ち行列が満杯の場合は待たせずに、max-wait 以内に計算が終わらない場合はそこで打ち切って PasswordHashingBusyException を投げる
+// ハッシュ計算を待って停止するリクエストスレッドは最大で プールサイズ + 待ち行列の長さ 本、それぞれ最長 max-wait まで
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+    
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitNanos;
+    
+    // ハッシュ計算そのものの所要時間（待ち時間を含まない）と、混雑で拒否した数（待ち行列が満杯・待ち時間の超過）
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter queueFullCounter;
+    private final Counter timeoutCounter;
+    
+    public BoundedPasswordEncoder(
+            PasswordEncoder delegate,
+            int poolSize,
+            int queueCapacity,
+            Duration maxWait,
+            MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.maxWaitNanos = maxWait.toNanos();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hash-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.queueFullCounter = rejectedCounter(meterRegistry, "queue-full");
+        this.timeoutCounter = rejectedCounter(meterRegistry, "timeout");
+        Gauge.builder("todo.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("todo.password.hash.queued", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    
+    // 実行中のハッシュ計算の数
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+    
+    // 待ち行列にあるハッシュ計算の数
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+    
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+    
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("todo.password.hash")
+                .description("BCryptのハッシュ計算")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+    
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("todo.password.hash.rejected")
+                .description("混雑のため拒否したハッシュ計算")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+    
+    private <T> T execute(Timer timer, Callable<T> task) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                // 待ち行列で待つ間に、これから計算しても max-wait に間に合わなくなったものは計算しない
+                // （間に合わない計算にCPUを使うと、後ろで待っている計算まで間に合わなくなる）
+                long expectedNanos = (long) timer.mean(TimeUnit.NANOSECONDS);
+                if (System.nanoTime() + expectedNanos > deadline) {
+                    throw new DeadlineExceededException();
+                }
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            queueFullCounter.increment();
+            throw new PasswordHashingBusyException();
+        }
+        
+        try {
+            return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 待ち行列にあれば取り除く（計算中の場合は結果を捨てる）
+            future.cancel(true);
+            timeoutCounter.increment();
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("パスワードの処理が中断されました", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DeadlineExceededException) {
+                timeoutCounter.increment();
+                throw new PasswordHashingBusyException();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    private static class DeadlineExceededException extends RuntimeException {
+        
+        DeadlineExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.todoapp.security;
+
+import com.example.todoapp.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// JWT認証用のユーザー情報キャッシュ
+// リクエストごとの users テーブル検索を省略する（ユーザー情報変更時は UserChangedEvent を受けて無効化）
+// ユーザーID（uid クレーム）を含むトークンはクレームだけで認証するため、使われるのは uid を含まない旧形式のトークンだけ
+// 旧形式のトークンがすべて有効期限（jwt.expiration）を過ぎた後は、このキャッシュごと削除できる
+@Service
+public class CachingUserDetailsService implements UserDetailsService, MeterBinder {
+    
+    private final CustomUserDetailsService delegate;
+    private final Cache<String, UserDetails> cache;
+    
+    public CachingUserDetailsService(
+            CustomUserDetailsService delegate,
+            @Value("${security.user-cache.max-size:10000}") long maxSize,
+            @Value("${security.user-cache.ttl:PT10M}") Duration ttl
+    ) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+    
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // 見つからないユーザーはキャッシュしない（例外がそのまま伝播する）
+        return cache.get(username, delegate::loadUserByUsername);
+    }
+    
+    // 指定ユーザーのキャッシュを無効化
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+    
+    // ユーザー情報の変更がコミットされた後に無効化する（トランザクション外で発行された場合はすぐに無効化）
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.username());
+    }
+    
+    // すべてのキャッシュを無効化
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+    
+    // ヒット数・ミス数・追い出し数などの統計情報
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+    
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "user-details");
+    }
+}
@@ -2,11 +2,14 @@ package com.example.todoapp.security;
 
 import com.example.todoapp.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+// ログイン時のパスワード照合は常にDBの最新値で行う（JWT認証はCachingUserDetailsService経由）
+@Primary
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
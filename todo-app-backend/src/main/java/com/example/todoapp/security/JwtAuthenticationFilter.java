@@ -1,26 +1,45 @@
 package com.example.todoapp.security;
 
+import com.example.todoapp.model.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final CachingUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    
+    // トークン検証の所要時間（リクエストごとにメーターを検索・生成しないよう事前に取得しておく）
+    private final Timer verifySuccessTimer;
+    private final Timer verifyFailureTimer;
+    
+    public JwtAuthenticationFilter(
+            JwtUtil jwtUtil,
+            CachingUserDetailsService userDetailsService,
+            TokenRevocationService tokenRevocationService,
+            MeterRegistry meterRegistry
+    ) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.verifySuccessTimer = verifyTimer(meterRegistry, "success");
+        this.verifyFailureTimer = verifyTimer(meterRegistry, "failure");
+    }
     
     @Override
     protected void doFilterInternal(
@@ -31,7 +50,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
         
         // Authorizationヘッダーがない、またはBearerトークンでない場合はスキップ
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -43,19 +61,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
         
         try {
-            // トークンからユーザー名を取得
-            username = jwtUtil.extractUsername(jwt);
+            // トークンを一度だけ検証してクレームを取得
+            VerifiedToken verified = verify(jwt);
+            
+            // 失効済みのトークンは認証しない（Bloomフィルターで判定するためDBアクセスなし）
+            if (tokenRevocationService.isRevoked(verified.tokenId())) {
+                filterChain.doFilter(request, response);
+                return;
+            }
             
             // ユーザー名があり、まだ認証されていない場合
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (verified.username() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserPrincipal principal = resolvePrincipal(verified);
                 
-                // トークンの検証
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (principal != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities()
+                            principal.authorities()
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -67,4 +90,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    private VerifiedToken verify(String jwt) {
+        long start = System.nanoTime();
+        try {
+            VerifiedToken verified = jwtUtil.verify(jwt);
+            verifySuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return verified;
+        } catch (RuntimeException e) {
+            verifyFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+    
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("todo.jwt.verify")
+                .description("JWTの検証（キャッシュヒットを含む）")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+    
+    // トークンのクレームからプリンシパルを生成（DBアクセスなし）
+    // ユーザーIDを含まない旧形式のトークンのみユーザー情報を検索する
+    private UserPrincipal resolvePrincipal(VerifiedToken verified) {
+        if (verified.userId() != null) {
+            return UserPrincipal.of(verified.userId(), verified.username());
+        }
+        
+        UserDetails userDetails = userDetailsService.loadUserByUsername(verified.username());
+        if (userDetails instanceof User user && jwtUtil.validateToken(verified, userDetails)) {
+            return UserPrincipal.from(user);
+        }
+        return null;
+    }
 }
@@ -0,0 +1,154 @@
+package com.example.todoapp.security;
+
+import com.example.todoapp.model.RevokedToken;
+import com.example.todoapp.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// トークンの失効（ログアウト・漏洩したトークンの無効化）
+// 失効したトークンIDはDBに記録し、各ノードはBloomフィルターと正確な集合をメモリに持つ
+// 認証時の判定はほとんどの場合Bloomフィルターだけで終わり、DBには問い合わせない
+// 他のノードで失効したトークンは revoked_at で定期的に差分を取り込む
+@Slf4j
+@Service
+public class TokenRevocationService implements MeterBinder {
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    
+    // 失効したトークンID → トークンの有効期限
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private volatile BloomFilter filter;
+    private long capacity;
+    
+    // 他のノードのコミットが遅れても取りこぼさないよう、取り込み範囲をこの幅だけ巻き戻す
+    @Value("${jwt.revocation.safety-window:PT5S}")
+    private Duration safetyWindow;
+    
+    private volatile LocalDateTime lastPolled;
+    
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${jwt.revocation.expected-insertions:100000}") long expectedInsertions,
+            @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.capacity = expectedInsertions;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+    
+    // 起動時に有効期限内の失効記録をすべて読み込む
+    @PostConstruct
+    void load() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByExpiresAtAfter(now).forEach(this::add);
+        lastPolled = now;
+    }
+    
+    // トークンが失効しているか（jti のない旧形式のトークンは対象外）
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+    
+    // トークンを失効させる（同じトークンを複数回失効させても問題ない）
+    public void revoke(VerifiedToken token) {
+        if (token.tokenId() == null) {
+            throw new IllegalArgumentException("このトークンは失効できません（再ログインしてください）");
+        }
+        RevokedToken entity = new RevokedToken(
+                null,
+                token.tokenId(),
+                token.userId(),
+                LocalDateTime.ofInstant(token.expiresAt(), ZoneId.systemDefault()),
+                LocalDateTime.now()
+        );
+        try {
+            revokedTokenRepository.save(entity);
+        } catch (DataIntegrityViolationException e) {
+            // 失効済み
+            log.debug("失効済みのトークンです: {}", token.tokenId());
+        }
+        add(entity);
+    }
+    
+    // 他のノードで失効したトークンを取り込む
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval:PT5S}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> changes = revokedTokenRepository.findByRevokedAtAfter(lastPolled.minus(safetyWindow));
+        changes.forEach(this::add);
+        lastPolled = now;
+    }
+    
+    // 有効期限を過ぎた失効記録を削除し、Bloomフィルターを作り直す（Bloomフィルターからは削除できないため）
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval:PT10M}")
+    @Transactional
+    public void prune() {
+        int deleted = revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        Instant now = Instant.now();
+        synchronized (lock) {
+            revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+            rebuild(Math.max(expectedInsertions, revoked.size() * 2L));
+        }
+        if (deleted > 0) {
+            log.info("期限切れの失効記録を削除しました: {}件", deleted);
+        }
+    }
+    
+    public int size() {
+        return revoked.size();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("todo.jwt.revoked", this, TokenRevocationService::size)
+                .description("メモリ上の失効済みトークン数")
+                .register(registry);
+    }
+    
+    // 集合に追加してからフィルターに追加する（フィルターが true を返す時点で集合には必ず入っている）
+    private void add(RevokedToken entity) {
+        Instant expiresAt = entity.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant();
+        synchronized (lock) {
+            if (revoked.putIfAbsent(entity.getTokenId(), expiresAt) != null) {
+                return;
+            }
+            if (revoked.size() > capacity) {
+                // 想定件数を超えると偽陽性が増えるため、容量を倍にして作り直す
+                rebuild(capacity * 2);
+            } else {
+                filter.put(entity.getTokenId());
+            }
+        }
+    }
+    
+    private void rebuild(long newCapacity) {
+        BloomFilter rebuilt = new BloomFilter(newCapacity, falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        capacity = newCapacity;
+        filter = rebuilt;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.todoapp.security;
+
+import com.example.todoapp.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+// 認証済みユーザーを表す軽量な不変プリンシパル
+// JPAエンティティを保持せず、トークンのクレームから直接生成する
+public record UserPrincipal(
+        Long id,
+        String username,
+        Collection<? extends GrantedAuthority> authorities
+) implements Principal {
+    
+    // 全ユーザー共通の権限（リクエストごとに生成しない）
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    
+    public static UserPrincipal of(Long id, String username) {
+        return new UserPrincipal(id, username, USER_AUTHORITIES);
+    }
+    
+    public static UserPrincipal from(User user) {
+        return of(user.getId(), user.getUsername());
+    }
+    
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.todoapp.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+// 署名検証済みトークンのクレーム（不変）
+// 一度検証したトークンはこのオブジェクトとしてキャッシュされ、再パースせずに参照される
+// tokenId は jti クレーム（失効の判定に使う、旧形式のトークンでは null）
+public record VerifiedToken(String tokenId, Long userId, String username, Instant issuedAt, Instant expiresAt) {
+    
+    static VerifiedToken from(Claims claims) {
+        return new VerifiedToken(
+                claims.getId(),
+                claims.get(JwtUtil.USER_ID_CLAIM, Long.class),
+                claims.getSubject(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant()
+        );
+    }
+    
+    // 指定時刻の時点で有効期限切れかどうか
+    public boolean isExpired(Instant now) {
+        return expiresAt.isBefore(now);
+    }
+}
@@ -1,16 +1,26 @@
 package com.example.todoapp.service;
 
 import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.event.UserChangedEvent;
 import com.example.todoapp.model.User;
 import com.example.todoapp.repository.UserRepository;
 import com.example.todoapp.security.JwtUtil;
+import com.example.todoapp.security.TokenRevocationService;
+import com.example.todoapp.security.VerifiedToken;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Locale;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -19,50 +29,90 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final TokenRevocationService tokenRevocationService;
+    private final ApplicationEventPublisher eventPublisher;
     
-    @Transactional
+    // 重複チェックのSELECTは行わず、INSERTの一意制約違反で判定する（DBへの問い合わせは1回）
+    // BCryptの計算中にDB接続を保持しないよう、ハッシュ化はトランザクションの外で行う
     public AuthDTO.AuthResponse register(AuthDTO.RegisterRequest request) {
-        // ユーザー名の重複チェック
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("ユーザー名は既に使用されています");
-        }
-        
-        // メールアドレスの重複チェック
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("メールアドレスは既に使用されています");
-        }
-        
         // 新しいユーザーを作成
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateError(e);
+        }
+        // 削除されたユーザーと同じ名前で登録した場合に、旧ユーザーの認証情報がキャッシュに残らないようにする
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername()));
         
         // JWTトークンを生成
-        String token = jwtUtil.generateToken(user.getUsername());
+        String token = jwtUtil.generateToken(user.getId(), user.getUsername());
         
         return new AuthDTO.AuthResponse(token, user.getUsername(), user.getEmail());
     }
     
-    @Transactional(readOnly = true)
+    // BCryptの照合中にDB接続を保持しないよう、トランザクションは張らない
     public AuthDTO.AuthResponse login(AuthDTO.LoginRequest request) {
-        // 認証を実行
-        authenticationManager.authenticate(
+        // 認証を実行（ユーザーの検索は認証時の1回だけ）
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getUsername(),
                         request.getPassword()
                 )
         );
         
-        // ユーザーを取得
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("ユーザーが見つかりません"));
+        // 認証済みのプリンシパルをそのまま使う
+        User user = (User) authentication.getPrincipal();
         
         // JWTトークンを生成
-        String token = jwtUtil.generateToken(user.getUsername());
+        String token = jwtUtil.generateToken(user.getId(), user.getUsername());
         
         return new AuthDTO.AuthResponse(token, user.getUsername(), user.getEmail());
     }
+    
+    // 現在のトークンを失効させる
+    public void logout(String token) {
+        tokenRevocationService.revoke(jwtUtil.verify(token));
+    }
+    
+    // 指定したトークンを失効させる（本人のトークンのみ）
+    public void revoke(String token, Long userId) {
+        VerifiedToken verified = jwtUtil.verify(token);
+        if (!userId.equals(verified.userId())) {
+            throw new IllegalArgumentException("他のユーザーのトークンは失効できません");
+        }
+        tokenRevocationService.revoke(verified);
+    }
+    
+    // 違反した一意制約の名前から、どの項目が重複したかを判定する
+    // （schema.sql で作成した旧来のDBでは制約名がカラム名になっているため、部分一致で判定する）
+    // 判定できない違反は例外のメッセージにSQL文や値が含まれるため、クライアントには返さずログにだけ出す
+    private RuntimeException duplicateError(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException violation) || violation.getConstraintName() == null) {
+            return registrationError(e);
+        }
+        // H2 では制約名の後ろに索引の定義やSQL文が続くため、先頭の識別子だけを使う
+        String constraint = violation.getConstraintName()
+                .replace("\"", "")
+                .strip()
+                .split("\\s+")[0]
+                .toLowerCase(Locale.ROOT);
+        
+        if (constraint.contains("username")) {
+            return new RuntimeException("ユーザー名は既に使用されています");
+        }
+        if (constraint.contains("email")) {
+            return new RuntimeException("メールアドレスは既に使用されています");
+        }
+        return registrationError(e);
+    }
+    
+    private RuntimeException registrationError(DataIntegrityViolationException e) {
+        log.warn("ユーザーの登録で判定できない制約違反が発生しました", e);
+        return new RuntimeException("ユーザーを登録できませんでした");
+    }
 }
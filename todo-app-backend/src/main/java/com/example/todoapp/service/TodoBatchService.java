@@ -0,0 +1,285 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.event.TodoChangedEvent;
+import com.example.todoapp.model.Todo;
+import com.example.todoapp.repository.TodoRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// 複数のTodo操作を1トランザクションでまとめて適用する
+// 既存Todoへの操作は1回のSELECTで読み込み、UPDATE/DELETEはHibernateのJDBCバッチ、
+// 作成はIDENTITY採番のままJDBCバッチINSERT（生成キー取得）で送信する
+@Service
+@RequiredArgsConstructor
+public class TodoBatchService {
+    
+    private static final String INSERT_SQL =
+            "insert into todos (title, description, completed, user_id, created_at, updated_at) values (?, ?, ?, ?, ?, ?)";
+    
+    private final TodoRepository todoRepository;
+    private final TodoService todoService;
+    private final TodoStatsService todoStatsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${todo.batch.max-operations:500}")
+    private int maxOperations;
+    
+    // Hibernateと同じタイムゾーンで日時を書き込む（hibernate.jdbc.time_zone）
+    @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}")
+    private String jdbcTimeZone;
+    
+    @Transactional
+    public TodoDTO.BatchResponse applyBatch(List<TodoDTO.BatchOperation> operations, Long userId) {
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("一度に実行できる操作は" + maxOperations + "件までです");
+        }
+        
+        // 更新・削除・切替の対象を1クエリでまとめて取得（件数の差分を求めるため、コミットまで行をロックする）
+        Set<Long> ids = operations.stream()
+                .map(TodoDTO.BatchOperation::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(HashSet::new));
+        Map<Long, Todo> todos = ids.isEmpty()
+                ? new HashMap<>()
+                : todoRepository.findForUpdateByUserIdAndIdIn(userId, ids).stream()
+                        .collect(Collectors.toMap(Todo::getId, Function.identity()));
+        
+        // 件数の差分は、操作対象の操作前と操作後の状態の差で求める
+        TodoStatsService.Delta before = sumStats(todos.values());
+        
+        TodoDTO.BatchResult[] results = new TodoDTO.BatchResult[operations.size()];
+        Map<Integer, Todo> modified = new HashMap<>();
+        List<Integer> creates = new ArrayList<>();
+        
+        for (int i = 0; i < operations.size(); i++) {
+            TodoDTO.BatchOperation operation = operations.get(i);
+            String op = operation.getOp() != null ? operation.getOp().toLowerCase(Locale.ROOT) : "";
+            
+            switch (op) {
+                case "create" -> {
+                    String error = validateCreate(operation);
+                    if (error != null) {
+                        results[i] = failure(i, op, error);
+                    } else {
+                        creates.add(i);
+                    }
+                }
+                case "update", "toggle" -> {
+                    Todo todo = todos.get(operation.getId());
+                    if (todo == null) {
+                        results[i] = failure(i, op, "Todoが見つかりません");
+                        continue;
+                    }
+                    if (op.equals("toggle")) {
+                        todo.setCompleted(!todo.getCompleted());
+                    } else {
+                        String error = validateUpdate(operation);
+                        if (error != null) {
+                            results[i] = failure(i, op, error);
+                            continue;
+                        }
+                        applyUpdate(todo, operation);
+                    }
+                    // 操作時点の状態を結果に残す（updatedAtはフラッシュ後に反映）
+                    results[i] = success(i, op, todoService.convertToResponse(todo));
+                    modified.put(i, todo);
+                }
+                case "delete" -> {
+                    Todo todo = todos.remove(operation.getId());
+                    if (todo == null) {
+                        results[i] = failure(i, op, "Todoが見つかりません");
+                        continue;
+                    }
+                    todoRepository.delete(todo);
+                    results[i] = success(i, op, null);
+                }
+                default -> results[i] = failure(i, op, "不明な操作です: " + operation.getOp());
+            }
+        }
+        
+        // UPDATE/DELETE をまとめて送信し、更新日時を結果に反映
+        todoRepository.flush();
+        modified.forEach((index, todo) -> results[index].getTodo().setUpdatedAt(todo.getUpdatedAt()));
+        
+        insertAll(operations, creates, userId, results);
+        
+        TodoStatsService.Delta after = sumStats(todos.values());
+        for (int index : creates) {
+            after = after.plus(TodoStatsService.Delta.of(
+                    Boolean.TRUE.equals(operations.get(index).getCompleted()),
+                    results[index].getTodo().getCreatedAt()));
+        }
+        todoStatsService.apply(userId, after.minus(before));
+        
+        List<TodoDTO.BatchResult> resultList = Arrays.asList(results);
+        publishChanges(userId, operations, resultList);
+        
+        int succeeded = (int) resultList.stream().filter(TodoDTO.BatchResult::getSuccess).count();
+        return new TodoDTO.BatchResponse(resultList, succeeded, resultList.size() - succeeded);
+    }
+    
+    private static TodoStatsService.Delta sumStats(Iterable<Todo> todos) {
+        TodoStatsService.Delta sum = TodoStatsService.Delta.ZERO;
+        for (Todo todo : todos) {
+            sum = sum.plus(TodoStatsService.Delta.of(todo.getCompleted(), todo.getCreatedAt()));
+        }
+        return sum;
+    }
+    
+    // 作成操作を1回のJDBCバッチでINSERTし、生成されたIDを結果に設定
+    private void insertAll(
+            List<TodoDTO.BatchOperation> operations,
+            List<Integer> creates,
+            Long userId,
+            TodoDTO.BatchResult[] results
+    ) {
+        if (creates.isEmpty()) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Calendar calendar = jdbcTimeZone.isEmpty()
+                ? Calendar.getInstance()
+                : Calendar.getInstance(TimeZone.getTimeZone(jdbcTimeZone));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TodoDTO.BatchOperation operation = operations.get(creates.get(i));
+                        ps.setString(1, operation.getTitle());
+                        ps.setString(2, operation.getDescription());
+                        ps.setBoolean(3, Boolean.TRUE.equals(operation.getCompleted()));
+                        ps.setLong(4, userId);
+                        ps.setTimestamp(5, timestamp, calendar);
+                        ps.setTimestamp(6, timestamp, calendar);
+                    }
+                    
+                    @Override
+                    public int getBatchSize() {
+                        return creates.size();
+                    }
+                },
+                keyHolder
+        );
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < creates.size(); i++) {
+            int index = creates.get(i);
+            TodoDTO.BatchOperation operation = operations.get(index);
+            Long id = ((Number) keys.get(i).values().iterator().next()).longValue();
+            results[index] = success(index, "create", new TodoDTO.Response(
+                    id,
+                    operation.getTitle(),
+                    operation.getDescription(),
+                    Boolean.TRUE.equals(operation.getCompleted()),
+                    now,
+                    now
+            ));
+        }
+    }
+    
+    // 成功した操作をまとめて1件の変更イベントとして発行
+    // 同じTodoへの複数操作は最後の状態だけを通知し、削除されたものは削除として扱う
+    private void publishChanges(Long userId, List<TodoDTO.BatchOperation> operations, List<TodoDTO.BatchResult> results) {
+        Map<Long, TodoDTO.Response> upserted = new LinkedHashMap<>();
+        Set<Long> deletedIds = new LinkedHashSet<>();
+        for (TodoDTO.BatchResult result : results) {
+            if (!result.getSuccess()) {
+                continue;
+            }
+            if (result.getTodo() != null) {
+                upserted.put(result.getTodo().getId(), result.getTodo());
+            } else {
+                Long id = operations.get(result.getIndex()).getId();
+                upserted.remove(id);
+                deletedIds.add(id);
+            }
+        }
+        
+        TodoChangedEvent event = new TodoChangedEvent(userId, List.copyOf(upserted.values()), List.copyOf(deletedIds));
+        if (!event.isEmpty()) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+    
+    // 作成リクエストと同じ検証ルールを適用
+    private String validateCreate(TodoDTO.BatchOperation operation) {
+        TodoDTO.CreateRequest request = new TodoDTO.CreateRequest(
+                operation.getTitle(),
+                operation.getDescription(),
+                operation.getCompleted()
+        );
+        return firstViolation(validator.validate(request));
+    }
+    
+    // 更新リクエストと同じ検証ルールを適用（空のタイトル・長すぎる値はDBエラーにせずこの操作だけを失敗にする）
+    private String validateUpdate(TodoDTO.BatchOperation operation) {
+        TodoDTO.UpdateRequest request = new TodoDTO.UpdateRequest(
+                operation.getTitle(),
+                operation.getDescription(),
+                operation.getCompleted()
+        );
+        return firstViolation(validator.validate(request));
+    }
+    
+    private static <T> String firstViolation(Set<ConstraintViolation<T>> violations) {
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+    
+    private void applyUpdate(Todo todo, TodoDTO.BatchOperation operation) {
+        if (operation.getTitle() != null) {
+            todo.setTitle(operation.getTitle());
+        }
+        if (operation.getDescription() != null) {
+            todo.setDescription(operation.getDescription());
+        }
+        if (operation.getCompleted() != null) {
+            todo.setCompleted(operation.getCompleted());
+        }
+    }
+    
+    private static TodoDTO.BatchResult success(int index, String op, TodoDTO.Response todo) {
+        return new TodoDTO.BatchResult(index, op, true, todo, null);
+    }
+    
+    private static TodoDTO.BatchResult failure(int index, String op, String message) {
+        return new TodoDTO.BatchResult(index, op, false, null, message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.TodoDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// キーセットページング用のカーソル（created_at, id）
+// クライアントには中身を意識させないよう Base64URL でエンコードして渡す
+record TodoCursor(LocalDateTime createdAt, Long id) {
+    
+    static TodoCursor of(TodoDTO.Response todo) {
+        return new TodoCursor(todo.getCreatedAt(), todo.getId());
+    }
+    
+    String encode() {
+        String raw = createdAt + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static TodoCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(',');
+            return new TodoCursor(
+                    LocalDateTime.parse(raw.substring(0, sep)),
+                    Long.parseLong(raw.substring(sep + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("カーソルが不正です");
+        }
+    }
+}
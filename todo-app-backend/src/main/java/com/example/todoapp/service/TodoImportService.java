@@ -0,0 +1,352 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.event.TodoChangedEvent;
+import com.example.todoapp.exception.ImportBusyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.Semaphore;
+
+// ファイル（JSON配列・NDJSON・CSV）からTodoを一括で取り込む
+// アップロードを1件ずつ読みながら検証し、batch-size 件ごとに1回のJDBCバッチINSERTで書き込んでコミットする
+// 保持するのは書き込み待ちの1バッチ分とエラー報告（max-errors 件まで）だけのため、ファイルの大きさによらずメモリ使用量は一定
+// 読み込みはトランザクションの外で行い、接続を使うのは書き込みの間だけ（遅いアップロードで接続やロックを占有しない）
+@Slf4j
+@Service
+public class TodoImportService {
+    
+    private static final String INSERT_SQL =
+            "insert into todos (title, description, completed, user_id, created_at, updated_at) values (?, ?, ?, ?, ?, ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TodoStatsService todoStatsService;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxRows;
+    private final int maxErrors;
+    private final String jdbcTimeZone;
+    // 同時に実行する取り込みの数（超えた場合は 503 で再試行させる）
+    private final Semaphore permits;
+    
+    public TodoImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TodoStatsService todoStatsService,
+            ObjectMapper objectMapper,
+            Validator validator,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${todo.import.batch-size:500}") int batchSize,
+            @Value("${todo.import.max-rows:100000}") int maxRows,
+            @Value("${todo.import.max-errors:1000}") int maxErrors,
+            @Value("${todo.import.max-concurrent:2}") int maxConcurrent,
+            @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcTimeZone
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.todoStatsService = todoStatsService;
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .build();
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+        this.maxErrors = maxErrors;
+        this.jdbcTimeZone = jdbcTimeZone;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+    
+    // 取り込めるファイルの形式（JSON は配列と NDJSON のどちらも読める）
+    public enum Format {
+        JSON,
+        CSV;
+        
+        // Content-Type で判定し、判定できない場合（multipart の application/octet-stream 等）はファイル名の拡張子で判定する
+        public static Format from(String contentType, String filename) {
+            if (contentType != null) {
+                String type = contentType.toLowerCase(Locale.ROOT);
+                if (type.startsWith("application/json") || type.startsWith("application/x-ndjson")) {
+                    return JSON;
+                }
+                if (type.startsWith("text/csv")) {
+                    return CSV;
+                }
+            }
+            if (filename != null) {
+                String name = filename.toLowerCase(Locale.ROOT);
+                if (name.endsWith(".json") || name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                    return JSON;
+                }
+                if (name.endsWith(".csv")) {
+                    return CSV;
+                }
+            }
+            throw new IllegalArgumentException("取り込めない形式です（JSON・NDJSON・CSV に対応しています）");
+        }
+    }
+    
+    // 形式が不正な行・検証エラーの行は報告してスキップし、残りの行の取り込みを続ける
+    // ファイル自体が壊れている場合や書き込みに失敗した場合はそこで中断する（それまでにコミットした行は残る）
+    public TodoDTO.ImportResponse importTodos(InputStream in, String contentType, String filename, Long userId) throws IOException {
+        Format format = Format.from(contentType, filename);
+        if (!permits.tryAcquire()) {
+            throw new ImportBusyException();
+        }
+        try {
+            return importRows(open(in, format, charset(contentType)), userId);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private TodoDTO.ImportResponse importRows(MappingIterator<JsonNode> rows, Long userId) throws IOException {
+        Report report = new Report();
+        List<Row> pending = new ArrayList<>(batchSize);
+        int row = 0;
+        
+        try (rows) {
+            while (true) {
+                JsonNode node;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    if (maxRows > 0 && row > maxRows) {
+                        report.abort(row, "取り込める件数は" + maxRows + "件までです（" + row + "行目以降は取り込まれていません）");
+                        break;
+                    }
+                    node = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    // 構文エラーの後は行の区切りが分からないため、以降は読み込まない
+                    report.abort(row, "ファイルの形式が不正です（" + location(e) + "）。" + row + "行目以降は取り込まれていません");
+                    break;
+                }
+                
+                Row parsed = parse(row, node, report);
+                if (parsed != null) {
+                    pending.add(parsed);
+                }
+                if (pending.size() >= batchSize && !flush(pending, userId, report)) {
+                    break;
+                }
+            }
+        }
+        // 中断した場合もそれまでに読み込んだ正しい行は書き込む（書き込みの失敗で中断した場合は pending は空）
+        flush(pending, userId, report);
+        return report.toResponse();
+    }
+    
+    // 作成リクエストと同じ検証ルールを適用する（エラーは報告に追加して null を返す）
+    private Row parse(int row, JsonNode node, Report report) {
+        if (!node.isObject()) {
+            report.fail(row, "オブジェクトではありません");
+            return null;
+        }
+        TodoDTO.CreateRequest request;
+        try {
+            request = objectMapper.treeToValue(node, TodoDTO.CreateRequest.class);
+        } catch (JsonProcessingException e) {
+            report.fail(row, fieldName(e) + " の値が不正です");
+            return null;
+        }
+        Set<ConstraintViolation<TodoDTO.CreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            report.fail(row, violations.iterator().next().getMessage());
+            return null;
+        }
+        return new Row(row, request);
+    }
+    
+    // 書き込み待ちの行を1トランザクションで書き込み、件数の加算と変更イベントの発行も同じトランザクションで行う
+    // 失敗した場合はこのバッチをロールバックして中断する
+    private boolean flush(List<Row> pending, Long userId, Report report) {
+        if (pending.isEmpty()) {
+            return true;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<TodoDTO.Response> inserted = insertAll(pending, userId);
+                TodoStatsService.Delta delta = TodoStatsService.Delta.ZERO;
+                for (TodoDTO.Response todo : inserted) {
+                    delta = delta.plus(TodoStatsService.Delta.of(todo.getCompleted(), todo.getCreatedAt()));
+                }
+                todoStatsService.apply(userId, delta);
+                eventPublisher.publishEvent(new TodoChangedEvent(userId, inserted, List.of()));
+            });
+            report.imported += pending.size();
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Todoの取り込み中に書き込みに失敗しました: userId={}, row={}", userId, pending.get(0).row(), e);
+            report.abort(pending.get(0).row(), "保存に失敗しました。" + pending.get(0).row() + "行目以降は取り込まれていません");
+            return false;
+        } finally {
+            pending.clear();
+        }
+    }
+    
+    // 1回のJDBCバッチでINSERTし、生成されたIDでレスポンスを組み立てる
+    private List<TodoDTO.Response> insertAll(List<Row> rows, Long userId) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Calendar calendar = jdbcTimeZone.isEmpty()
+                ? Calendar.getInstance()
+                : Calendar.getInstance(TimeZone.getTimeZone(jdbcTimeZone));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TodoDTO.CreateRequest request = rows.get(i).request();
+                        ps.setString(1, request.getTitle());
+                        ps.setString(2, request.getDescription());
+                        ps.setBoolean(3, Boolean.TRUE.equals(request.getCompleted()));
+                        ps.setLong(4, userId);
+                        ps.setTimestamp(5, timestamp, calendar);
+                        ps.setTimestamp(6, timestamp, calendar);
+                    }
+                    
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keyHolder
+        );
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<TodoDTO.Response> inserted = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            TodoDTO.CreateRequest request = rows.get(i).request();
+            Long id = ((Number) keys.get(i).values().iterator().next()).longValue();
+            inserted.add(new TodoDTO.Response(
+                    id,
+                    request.getTitle(),
+                    request.getDescription(),
+                    Boolean.TRUE.equals(request.getCompleted()),
+                    now,
+                    now
+            ));
+        }
+        return inserted;
+    }
+    
+    // CSV は1行目を列名（title, description, completed）として読む
+    private MappingIterator<JsonNode> open(InputStream in, Format format, Charset charset) throws IOException {
+        Reader reader = new InputStreamReader(in, charset);
+        if (format == Format.CSV) {
+            return csvMapper.readerFor(JsonNode.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(reader);
+        }
+        return objectMapper.readerFor(JsonNode.class).readValues(reader);
+    }
+    
+    // Content-Type の charset（Shift_JIS の CSV など）、指定がなければ UTF-8
+    private static Charset charset(String contentType) {
+        if (contentType == null) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            Charset charset = MediaType.parseMediaType(contentType).getCharset();
+            return charset != null ? charset : StandardCharsets.UTF_8;
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+    
+    private static String location(JsonProcessingException e) {
+        return e.getLocation() != null
+                ? e.getLocation().getLineNr() + "行目 " + e.getLocation().getColumnNr() + "文字目"
+                : "位置不明";
+    }
+    
+    private static String fieldName(JsonProcessingException e) {
+        if (e instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()) {
+            String name = mapping.getPath().get(mapping.getPath().size() - 1).getFieldName();
+            if (name != null) {
+                return name;
+            }
+        }
+        return "項目";
+    }
+    
+    private record Row(int row, TodoDTO.CreateRequest request) {
+    }
+    
+    // 取り込み結果の集計（エラーの詳細は max-errors 件まで保持し、それ以降は件数だけを数える）
+    private final class Report {
+        
+        private int imported;
+        private int failed;
+        private boolean aborted;
+        private final List<TodoDTO.ImportError> errors = new ArrayList<>();
+        
+        private void fail(int row, String message) {
+            failed++;
+            addError(row, message);
+        }
+        
+        private void abort(int row, String message) {
+            aborted = true;
+            addError(row, message);
+        }
+        
+        private void addError(int row, String message) {
+            if (errors.size() < maxErrors) {
+                errors.add(new TodoDTO.ImportError(row, message));
+            }
+        }
+        
+        private TodoDTO.ImportResponse toResponse() {
+            return new TodoDTO.ImportResponse(imported, failed, !aborted, errors);
+        }
+    }
+}
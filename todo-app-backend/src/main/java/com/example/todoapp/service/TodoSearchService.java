@@ -0,0 +1,66 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.search.SearchQuery;
+import com.example.todoapp.search.SearchText;
+import com.example.todoapp.search.TodoSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class TodoSearchService {
+    
+    private final TodoSearchIndex todoSearchIndex;
+    private final TodoVersionService todoVersionService;
+    
+    @Value("${todo.search.default-size:20}")
+    private int defaultSize;
+    
+    @Value("${todo.search.max-size:100}")
+    private int maxSize;
+    
+    // 深いページほど上位の件数を多く保持する必要があるため、読み飛ばせる件数に上限を設ける
+    @Value("${todo.search.max-offset:1000}")
+    private int maxOffset;
+    
+    @Value("${todo.search.max-query-length:100}")
+    private int maxQueryLength;
+    
+    @Value("${todo.search.max-terms:8}")
+    private int maxTerms;
+    
+    @Value("${todo.search.snippet-length:80}")
+    private int snippetLength;
+    
+    // タイトル・説明に検索語（空白区切り、すべてを含む）が出現するTodoを関連度順に返す
+    @Transactional(readOnly = true)
+    public TodoDTO.SearchResponse search(Long userId, String q, Integer page, Integer size) {
+        SearchQuery query = SearchQuery.parse(q, maxQueryLength, maxTerms);
+        int pageSize = size != null ? Math.max(1, Math.min(size, maxSize)) : defaultSize;
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0 || (long) pageNumber * pageSize > maxOffset) {
+            throw new IllegalArgumentException("page の指定が不正です: " + page);
+        }
+        int offset = pageNumber * pageSize;
+        
+        TodoSearchIndex.Page result = todoSearchIndex.search(userId, todoVersionService.currentVersion(userId), query, offset, pageSize);
+        List<TodoDTO.SearchHit> items = new ArrayList<>(result.hits().size());
+        for (TodoSearchIndex.Hit hit : result.hits()) {
+            TodoDTO.Response todo = hit.todo();
+            items.add(new TodoDTO.SearchHit(
+                    todo,
+                    hit.score(),
+                    SearchText.highlight(todo.getTitle(), query.terms()),
+                    SearchText.snippet(todo.getDescription(), query.terms(), snippetLength)
+            ));
+        }
+        boolean hasMore = offset + items.size() < result.total();
+        return new TodoDTO.SearchResponse(items, result.total(), pageNumber, pageSize, hasMore);
+    }
+}
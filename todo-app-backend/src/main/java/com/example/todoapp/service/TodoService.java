@@ -1,86 +1,279 @@
 package com.example.todoapp.service;
 
+import com.example.todoapp.cache.TodoListCache;
 import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.event.TodoChangedEvent;
+import com.example.todoapp.event.TodoVersionChangedEvent;
 import com.example.todoapp.model.Todo;
-import com.example.todoapp.model.User;
 import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TodoService {
     
     private final TodoRepository todoRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TodoListCache todoListCache;
+    private final TodoStatsService todoStatsService;
+    private final TodoVersionService todoVersionService;
+    
+    // 一覧の並び順（作成日時の降順、同時刻はIDの降順）
+    private static final Comparator<TodoDTO.Response> LIST_ORDER = Comparator
+            .comparing(TodoDTO.Response::getCreatedAt)
+            .thenComparing(TodoDTO.Response::getId)
+            .reversed();
+    
+    // ページング指定のない一覧取得で全件を返すか（旧クライアント互換）
+    @Value("${todo.pagination.legacy-unpaged:true}")
+    private boolean legacyUnpaged;
+    
+    @Value("${todo.pagination.default-limit:50}")
+    private int defaultLimit;
+    
+    @Value("${todo.pagination.max-limit:200}")
+    private int maxLimit;
     
     @Transactional(readOnly = true)
-    public List<TodoDTO.Response> getAllTodos(User user) {
-        return todoRepository.findByUserOrderByCreatedAtDesc(user)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public List<TodoDTO.Response> getAllTodos(Long userId) {
+        return getAllTodos(userId, TodoDTO.Field.ALL, todoVersionService.currentVersion(userId));
     }
     
+    // エンティティを経由せず射影で直接レスポンスを読み出す
+    // version は呼び出し側が読み込みの前に取得した変更バージョン（ETagと同じ値）で、それより古いキャッシュは使わない
+    // 全項目の一覧はキャッシュし、ヒットした場合はクエリもレスポンスへの変換も行わない
+    // 一部の項目だけの場合もキャッシュ済みならそれを使い、なければ指定された項目だけを読み出す（キャッシュには格納しない）
     @Transactional(readOnly = true)
-    public TodoDTO.Response getTodoById(Long id, User user) {
-        Todo todo = todoRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new RuntimeException("Todoが見つかりません"));
-        return convertToResponse(todo);
+    public List<TodoDTO.Response> getAllTodos(Long userId, Set<TodoDTO.Field> fields, long version) {
+        if (fields.containsAll(TodoDTO.Field.ALL)) {
+            return todoListCache.get(userId, version, id -> todoRepository.findResponses(id, null, null, null, null, fields));
+        }
+        TodoListCache.Entry cached = todoListCache.getIfPresent(userId, version);
+        if (cached != null) {
+            return cached.todos().stream().map(todo -> TodoDTO.Field.narrow(todo, fields)).toList();
+        }
+        return todoRepository.findResponses(userId, null, null, null, null, fields);
+    }
+    
+    public boolean isLegacyUnpaged() {
+        return legacyUnpaged;
+    }
+    
+    @Transactional(readOnly = true)
+    public TodoDTO.PageResponse<TodoDTO.Response> getTodoPage(
+            Long userId,
+            String cursor,
+            Integer limit,
+            Boolean completed,
+            Set<TodoDTO.Field> fields
+    ) {
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, maxLimit)) : defaultLimit;
+        TodoCursor after = cursor == null || cursor.isEmpty() ? null : TodoCursor.decode(cursor);
+        
+        // 次ページの有無を判定するため1件多く取得する
+        List<TodoDTO.Response> todos = todoRepository.findResponses(
+                userId,
+                completed,
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                pageSize + 1,
+                fields
+        );
+        
+        boolean hasMore = todos.size() > pageSize;
+        List<TodoDTO.Response> items = hasMore ? todos.subList(0, pageSize) : todos;
+        String nextCursor = hasMore ? TodoCursor.of(items.get(items.size() - 1)).encode() : null;
+        return new TodoDTO.PageResponse<>(items, nextCursor, hasMore);
+    }
+    
+    // ユーザーのTodoをNDJSON（1行1件）で出力ストリームに書き出す
+    // 1件ずつ読み出して書き込み、書き込み済みのエンティティは永続化コンテキストから切り離す
+    @Transactional(readOnly = true)
+    public long exportTodos(Long userId, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Todo> todos = todoRepository.streamByUserId(userId);
+             SequenceWriter writer = objectMapper.writer()
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+            for (Todo todo : (Iterable<Todo>) todos::iterator) {
+                writer.write(convertToResponse(todo));
+                entityManager.detach(todo);
+                count++;
+            }
+            if (count > 0) {
+                writer.flush();
+                out.write('\n');
+            }
+        }
+        return count;
+    }
+    
+    // version 以降のキャッシュがあればIDの索引から返す（キャッシュにないIDは削除済みか他のユーザーのTodo）
+    @Transactional(readOnly = true)
+    public TodoDTO.Response getTodoById(Long id, Long userId, long version) {
+        TodoListCache.Entry cached = todoListCache.getIfPresent(userId, version);
+        if (cached != null) {
+            TodoDTO.Response todo = cached.byId().get(id);
+            if (todo == null) {
+                throw new RuntimeException("Todoが見つかりません");
+            }
+            return todo;
+        }
+        return findResponse(id, userId);
     }
     
     @Transactional
-    public TodoDTO.Response createTodo(TodoDTO.CreateRequest request, User user) {
+    public TodoDTO.Response createTodo(TodoDTO.CreateRequest request, Long userId) {
         Todo todo = new Todo();
         todo.setTitle(request.getTitle());
         todo.setDescription(request.getDescription());
         todo.setCompleted(request.getCompleted() != null ? request.getCompleted() : false);
-        todo.setUser(user);
+        // ユーザーはSELECTせず参照（プロキシ）のみ設定
+        todo.setUser(userRepository.getReferenceById(userId));
         
         Todo savedTodo = todoRepository.save(todo);
-        return convertToResponse(savedTodo);
+        todoStatsService.apply(userId, TodoStatsService.Delta.of(savedTodo.getCompleted(), savedTodo.getCreatedAt()));
+        TodoDTO.Response response = convertToResponse(savedTodo);
+        eventPublisher.publishEvent(TodoChangedEvent.upserted(userId, response));
+        return response;
     }
     
+    // 指定された項目だけを1文のUPDATEで更新し、結果を射影で読み直す
+    // 完了状態を変更する場合は変更前の状態を条件にしたUPDATEで、状態が変わったかどうかを件数の差分にする
+    // （変更前の状態を読まないため、同時に同じTodoを変更しても更新の行ロックで順番に判定され、差分を二重に数えない）
     @Transactional
-    public TodoDTO.Response updateTodo(Long id, TodoDTO.UpdateRequest request, User user) {
-        Todo todo = todoRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new RuntimeException("Todoが見つかりません"));
+    public TodoDTO.Response updateTodo(Long id, TodoDTO.UpdateRequest request, Long userId) {
+        boolean hasChanges = request.getTitle() != null
+                || request.getDescription() != null
+                || request.getCompleted() != null;
         
-        if (request.getTitle() != null) {
-            todo.setTitle(request.getTitle());
-        }
-        if (request.getDescription() != null) {
-            todo.setDescription(request.getDescription());
-        }
-        if (request.getCompleted() != null) {
-            todo.setCompleted(request.getCompleted());
+        if (hasChanges) {
+            LocalDateTime now = LocalDateTime.now();
+            Boolean completed = request.getCompleted();
+            boolean completedChanged = completed != null && todoRepository.updatePartialIfCompleted(
+                    id, userId, request.getTitle(), request.getDescription(), completed, !completed, now) > 0;
+            if (completedChanged) {
+                todoStatsService.apply(userId, TodoStatsService.Delta.completedChanged(!completed, completed));
+            } else {
+                // 完了状態を変更しない、またはすでに指定された状態だった場合
+                int updated = todoRepository.updatePartial(
+                        id,
+                        userId,
+                        request.getTitle(),
+                        request.getDescription(),
+                        completed,
+                        now
+                );
+                if (updated == 0) {
+                    throw new RuntimeException("Todoが見つかりません");
+                }
+            }
         }
         
-        Todo updatedTodo = todoRepository.save(todo);
-        return convertToResponse(updatedTodo);
+        TodoDTO.Response response = findResponse(id, userId);
+        if (hasChanges) {
+            eventPublisher.publishEvent(TodoChangedEvent.upserted(userId, response));
+        }
+        return response;
     }
     
+    // 完了状態と今日作成かどうかの組み合わせを条件にDELETEし、削除できた条件から件数の差分を求める（削除前にSELECTしない）
+    // 一覧のキャッシュにあればその状態の条件から試すため、通常は1文で削除できる（キャッシュがない場合や存在しない場合は最大4文）
     @Transactional
-    public void deleteTodo(Long id, User user) {
-        Todo todo = todoRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new RuntimeException("Todoが見つかりません"));
-        todoRepository.delete(todo);
+    public void deleteTodo(Long id, Long userId) {
+        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
+        TodoListCache.Entry cached = todoListCache.getIfPresent(userId, todoVersionService.currentVersion(userId));
+        TodoDTO.Response known = cached != null ? cached.byId().get(id) : null;
+        boolean completedFirst = known != null && known.getCompleted();
+        boolean createdTodayFirst = known != null && !known.getCreatedAt().isBefore(todayStart);
+        
+        for (boolean completed : new boolean[]{completedFirst, !completedFirst}) {
+            for (boolean createdToday : new boolean[]{createdTodayFirst, !createdTodayFirst}) {
+                int deleted = createdToday
+                        ? todoRepository.deleteIfCreatedSince(id, userId, completed, todayStart)
+                        : todoRepository.deleteIfCreatedBefore(id, userId, completed, todayStart);
+                if (deleted > 0) {
+                    todoStatsService.apply(userId, new TodoStatsService.Delta(-1, completed ? -1 : 0, createdToday ? -1 : 0));
+                    eventPublisher.publishEvent(TodoChangedEvent.deleted(userId, id));
+                    return;
+                }
+            }
+        }
+        throw new RuntimeException("Todoが見つかりません");
     }
     
     @Transactional
-    public TodoDTO.Response toggleComplete(Long id, User user) {
-        Todo todo = todoRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new RuntimeException("Todoが見つかりません"));
+    public TodoDTO.Response toggleComplete(Long id, Long userId) {
+        int updated = todoRepository.toggleCompleted(id, userId, LocalDateTime.now());
+        if (updated == 0) {
+            throw new RuntimeException("Todoが見つかりません");
+        }
         
-        todo.setCompleted(!todo.getCompleted());
-        Todo updatedTodo = todoRepository.save(todo);
-        return convertToResponse(updatedTodo);
+        TodoDTO.Response response = findResponse(id, userId);
+        todoStatsService.apply(userId, TodoStatsService.Delta.completedChanged(!response.getCompleted(), response.getCompleted()));
+        eventPublisher.publishEvent(TodoChangedEvent.upserted(userId, response));
+        return response;
+    }
+    
+    // コミット後にキャッシュ済みの一覧へ変更を反映する（ロールバックされた変更は反映しない）
+    // 反映後の一覧は、この変更で進んだバージョンの一覧として格納される
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTodoVersionChanged(TodoVersionChangedEvent event) {
+        todoListCache.update(event.userId(), event.version(), todos -> applyChanges(todos, event.change()));
+    }
+    
+    // 更新されたTodoは同じ位置で置き換え、新しいTodoは並び順の位置に挿入する
+    static List<TodoDTO.Response> applyChanges(List<TodoDTO.Response> todos, TodoChangedEvent event) {
+        Map<Long, TodoDTO.Response> upserted = new LinkedHashMap<>();
+        event.upserted().forEach(todo -> upserted.put(todo.getId(), todo));
+        Set<Long> deletedIds = Set.copyOf(event.deletedIds());
+        
+        List<TodoDTO.Response> result = new ArrayList<>(todos.size() + upserted.size());
+        for (TodoDTO.Response todo : todos) {
+            if (deletedIds.contains(todo.getId())) {
+                continue;
+            }
+            TodoDTO.Response replacement = upserted.remove(todo.getId());
+            result.add(replacement != null ? replacement : todo);
+        }
+        if (!upserted.isEmpty()) {
+            result.addAll(upserted.values());
+            result.sort(LIST_ORDER);
+        }
+        return result;
+    }
+    
+    private TodoDTO.Response findResponse(Long id, Long userId) {
+        return todoRepository.findResponseByIdAndUserId(id, userId)
+                .orElseThrow(() -> new RuntimeException("Todoが見つかりません"));
     }
     
-    private TodoDTO.Response convertToResponse(Todo todo) {
+    TodoDTO.Response convertToResponse(Todo todo) {
         return new TodoDTO.Response(
                 todo.getId(),
                 todo.getTitle(),
@@ -0,0 +1,155 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.model.TodoStats;
+import com.example.todoapp.repository.TodoStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// ユーザーごとのTodo件数（GET /api/todos/stats）
+// Todoの書き込みと同じトランザクションで差分を加算するため、取得時に todos を数えることはない
+// 差分の適用漏れなどによるずれは、定期的な照合で todos から数え直して修正する
+@Slf4j
+@Service
+public class TodoStatsService {
+    
+    private final TodoStatsRepository todoStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    public TodoStatsService(TodoStatsRepository todoStatsRepository, PlatformTransactionManager transactionManager) {
+        this.todoStatsRepository = todoStatsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    // 行がまだないユーザー（この機能より前に作成したTodoのみのユーザー）は初回だけ todos から数える
+    @Transactional
+    public TodoDTO.StatsResponse getStats(Long userId) {
+        LocalDate today = LocalDate.now();
+        TodoStats stats = todoStatsRepository.findById(userId).orElse(null);
+        if (stats == null) {
+            // 同時に最初の書き込みがあっても一意キーの衝突にならないよう、差分0の upsert で作成する
+            todoStatsRepository.upsertFromTodos(userId, 0, 0, 0, today, today.atStartOfDay());
+            stats = todoStatsRepository.findById(userId).orElseThrow();
+        }
+        long createdToday = today.equals(stats.getStatsDate()) ? stats.getCreatedToday() : 0;
+        return new TodoDTO.StatsResponse(
+                stats.getTotal(),
+                stats.getCompleted(),
+                stats.getTotal() - stats.getCompleted(),
+                createdToday
+        );
+    }
+    
+    // 書き込みと同じトランザクション内で差分を加算する
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Long userId, Delta delta) {
+        if (delta.isZero()) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        if (todoStatsRepository.addDelta(userId, delta.total(), delta.completed(), delta.createdToday(), today) == 0) {
+            // 初回の書き込み: 今回の変更を含めて todos から数える
+            // 同時に初回の書き込みがあり、先に行が作成された場合は差分の加算になる
+            todoStatsRepository.upsertFromTodos(
+                    userId, delta.total(), delta.completed(), delta.createdToday(), today, today.atStartOfDay());
+        }
+    }
+    
+    // 集計済みの件数を todos から数え直した値と照合し、ずれていれば修正する
+    // 集計行を先に読み、読み取り後に書き込みがあった行は更新しない（次回の照合で確認する）
+    @Scheduled(
+            initialDelayString = "${todo.stats.reconcile-interval:PT6H}",
+            fixedDelayString = "${todo.stats.reconcile-interval:PT6H}"
+    )
+    public void reconcile() {
+        long lastUserId = 0;
+        int repaired = 0;
+        while (true) {
+            long after = lastUserId;
+            PageResult page = transactionTemplate.execute(status -> reconcilePage(after));
+            if (page == null || page.lastUserId() == null) {
+                break;
+            }
+            repaired += page.repaired();
+            lastUserId = page.lastUserId();
+        }
+        if (repaired > 0) {
+            log.warn("Todo件数のずれを修正しました: {}ユーザー", repaired);
+        }
+    }
+    
+    private PageResult reconcilePage(long afterUserId) {
+        List<TodoStats> page = todoStatsRepository.findTop500ByUserIdGreaterThanOrderByUserId(afterUserId);
+        if (page.isEmpty()) {
+            return new PageResult(null, 0);
+        }
+        
+        LocalDate today = LocalDate.now();
+        Map<Long, long[]> counts = new HashMap<>();
+        for (Object[] row : todoStatsRepository.countByUserIds(
+                page.stream().map(TodoStats::getUserId).toList(), today.atStartOfDay())) {
+            counts.put(((Number) row[0]).longValue(), new long[]{
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(),
+                    ((Number) row[3]).longValue()
+            });
+        }
+        
+        int repaired = 0;
+        for (TodoStats stats : page) {
+            long[] actual = counts.getOrDefault(stats.getUserId(), new long[3]);
+            long createdToday = today.equals(stats.getStatsDate()) ? stats.getCreatedToday() : 0;
+            if (stats.getTotal() == actual[0] && stats.getCompleted() == actual[1] && createdToday == actual[2]) {
+                continue;
+            }
+            repaired += todoStatsRepository.repair(
+                    stats.getUserId(), actual[0], actual[1], actual[2], today,
+                    stats.getTotal(), stats.getCompleted(), stats.getCreatedToday(), stats.getStatsDate()
+            );
+        }
+        return new PageResult(page.get(page.size() - 1).getUserId(), repaired);
+    }
+    
+    private record PageResult(Long lastUserId, int repaired) {
+    }
+    
+    // 件数の差分（全件・完了・今日作成）
+    public record Delta(long total, long completed, long createdToday) {
+        
+        public static final Delta ZERO = new Delta(0, 0, 0);
+        
+        // Todo 1件分
+        public static Delta of(boolean completed, LocalDateTime createdAt) {
+            boolean createdToday = createdAt != null && createdAt.toLocalDate().equals(LocalDate.now());
+            return new Delta(1, completed ? 1 : 0, createdToday ? 1 : 0);
+        }
+        
+        // 完了状態の変更
+        public static Delta completedChanged(boolean before, boolean after) {
+            return new Delta(0, (after ? 1 : 0) - (before ? 1 : 0), 0);
+        }
+        
+        public Delta plus(Delta other) {
+            return new Delta(total + other.total, completed + other.completed, createdToday + other.createdToday);
+        }
+        
+        public Delta minus(Delta other) {
+            return new Delta(total - other.total, completed - other.completed, createdToday - other.createdToday);
+        }
+        
+        public boolean isZero() {
+            return total == 0 && completed == 0 && createdToday == 0;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.event.TodoChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Todoの変更をSSE（GET /api/todos/stream）でユーザーごとに配信する
+// 接続は非同期リクエストとして保持するため、待機中の接続はスレッドを占有しない
+// 送信は配信スレッドで行い、書き込みを行ったリクエストのスレッドは待たせない
+// 受信の遅いクライアントへの送信は他の購読者の配信を待たせず、write-timeout を超えた購読者は切断して再接続時の差分同期に任せる
+@Slf4j
+@Service
+public class TodoStreamService {
+    
+    private final TodoSyncService todoSyncService;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final long writeTimeoutNanos;
+    private final ExecutorService deliveryExecutor;
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    
+    public TodoStreamService(
+            TodoSyncService todoSyncService,
+            @Value("${todo.stream.timeout:PT30M}") Duration timeout,
+            @Value("${todo.stream.buffer-size:256}") int bufferSize,
+            @Value("${todo.stream.write-timeout:PT10S}") Duration writeTimeout,
+            @Value("${todo.stream.delivery-threads:4}") int deliveryThreads
+    ) {
+        this.todoSyncService = todoSyncService;
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("todo-stream-");
+        threadFactory.setDaemon(true);
+        // emitter.send はソケットへの書き込みが終わるまで戻らないため、固定数のスレッドで送ると遅いクライアントが他の購読者の配信を止める
+        // 空いているスレッドがなければ新しく作る（送信中のスレッドは購読者ごとに最大1本、書き込みが止まったままの送信は
+        // Tomcat の書き込みタイムアウト（server.tomcat.connection-timeout）で失敗して解放される）
+        // delivery-threads はアイドル時にも残しておくスレッド数
+        this.deliveryExecutor = new ThreadPoolExecutor(deliveryThreads, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory);
+    }
+    
+    // 購読を開始する
+    // lastEventId がある場合は、切断中の変更を差分同期で取得してから配信を再開する
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter, lastEventId);
+        
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+        
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.schedule();
+        return emitter;
+    }
+    
+    // コミット済みの変更だけを購読者のバッファに積む
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTodoChanged(TodoChangedEvent event) {
+        Set<Subscriber> targets = subscribers.get(event.userId());
+        if (targets == null || event.isEmpty()) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            if (dropIfStalled(subscriber)) {
+                continue;
+            }
+            subscriber.offer(event);
+            subscriber.schedule();
+        }
+    }
+    
+    // プロキシやロードバランサーにアイドル接続を切られないよう定期的にコメント行を送る
+    // 切断済みの接続もここで送信に失敗して解放される
+    @Scheduled(fixedDelayString = "${todo.stream.heartbeat-interval:PT25S}")
+    public void sendHeartbeats() {
+        for (Set<Subscriber> targets : subscribers.values()) {
+            for (Subscriber subscriber : targets) {
+                if (dropIfStalled(subscriber)) {
+                    continue;
+                }
+                subscriber.heartbeat();
+                subscriber.schedule();
+            }
+        }
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        deliveryExecutor.shutdownNow();
+        subscribers.values().forEach(targets -> targets.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+    
+    // 送信が write-timeout 以内に終わらない購読者は、これ以上変更を積まずに購読を終了する
+    // emitter のメソッドは送信中のスレッドとロックを共有するため、ここでは呼ばない（送信から戻った配信スレッドが接続を閉じる）
+    private boolean dropIfStalled(Subscriber subscriber) {
+        if (!subscriber.isStalled()) {
+            return false;
+        }
+        // 複数のスレッドが同時に検出した場合も終了処理は1回だけ行う
+        if (!subscriber.close()) {
+            return true;
+        }
+        log.debug("SSE送信が {} ms 以内に終わらないため購読を終了します: userId={}",
+                TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos), subscriber.userId);
+        unregister(subscriber);
+        // 送信がすでに終わっていた場合も接続を閉じるよう、配信スレッドに回す
+        subscriber.schedule();
+        return true;
+    }
+    
+    private void unregister(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, targets) -> {
+            targets.remove(subscriber);
+            return targets.isEmpty() ? null : targets;
+        });
+    }
+    
+    // 購読者ごとの送信待ちバッファ
+    // 同じTodoへの連続した変更は最新の状態1件にまとめ、上限を超えた場合は破棄して差分同期で取り直す
+    private final class Subscriber {
+        
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // 送信を開始した時刻（System.nanoTime()、送信中でない場合は 0）
+        private volatile long writeStartedAt;
+        private volatile boolean closed;
+        
+        // キーはTodoのID、値が null の場合は削除
+        private final Map<Long, TodoDTO.Response> pending = new LinkedHashMap<>();
+        private String lastEventId;
+        private boolean resync;
+        private boolean ready;
+        private boolean heartbeatDue;
+        
+        private Subscriber(Long userId, SseEmitter emitter, String lastEventId) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.lastEventId = lastEventId;
+            this.resync = lastEventId != null && !lastEventId.isEmpty();
+            this.ready = !resync;
+        }
+        
+        private synchronized void offer(TodoChangedEvent event) {
+            if (resync) {
+                return;
+            }
+            event.upserted().forEach(todo -> pending.put(todo.getId(), todo));
+            event.deletedIds().forEach(id -> pending.put(id, null));
+            if (pending.size() > bufferSize) {
+                pending.clear();
+                resync = true;
+            }
+        }
+        
+        private synchronized void heartbeat() {
+            heartbeatDue = true;
+        }
+        
+        private synchronized boolean hasWork() {
+            return !closed && (resync || ready || heartbeatDue || !pending.isEmpty());
+        }
+        
+        private boolean isStalled() {
+            long startedAt = writeStartedAt;
+            return startedAt != 0 && System.nanoTime() - startedAt > writeTimeoutNanos;
+        }
+        
+        private synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            pending.clear();
+            return true;
+        }
+        
+        // 配信スレッドへの投入は購読者ごとに1つまで（送信順序を保つ）
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                deliveryExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+        
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = nextEvent()) != null) {
+                    writeStartedAt = System.nanoTime();
+                    try {
+                        emitter.send(event);
+                    } finally {
+                        writeStartedAt = 0;
+                    }
+                }
+            } catch (Exception e) {
+                // クライアントが切断済み（送信に失敗した接続は再利用しない）
+                log.debug("SSE送信に失敗したため購読を終了します: userId={}", userId);
+                unregister(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // 送信が遅く購読を打ち切った場合は接続を閉じる（クライアントは Last-Event-ID 付きで再接続して差分同期する）
+            if (closed) {
+                emitter.complete();
+                return;
+            }
+            // 送信中に積まれた変更を取りこぼさない
+            if (hasWork()) {
+                schedule();
+            }
+        }
+        
+        private SseEmitter.SseEventBuilder nextEvent() {
+            boolean needsResync;
+            String since;
+            List<TodoDTO.Response> upserted = new ArrayList<>();
+            List<Long> deletedIds = new ArrayList<>();
+            
+            synchronized (this) {
+                if (closed) {
+                    return null;
+                }
+                if (ready) {
+                    // 再接続時の Last-Event-ID として使えるよう、最初に現在の位置を通知する
+                    ready = false;
+                    lastEventId = todoSyncService.highWaterMark();
+                    return SseEmitter.event().name("ready").id(lastEventId).data(Map.of());
+                }
+                needsResync = resync;
+                since = lastEventId;
+                if (!needsResync) {
+                    if (pending.isEmpty()) {
+                        if (heartbeatDue) {
+                            heartbeatDue = false;
+                            return SseEmitter.event().comment("heartbeat");
+                        }
+                        return null;
+                    }
+                    pending.forEach((id, todo) -> {
+                        if (todo != null) {
+                            upserted.add(todo);
+                        } else {
+                            deletedIds.add(id);
+                        }
+                    });
+                    pending.clear();
+                }
+            }
+            
+            TodoDTO.ChangesResponse changes;
+            if (needsResync) {
+                // DBから取り直す間に積まれた変更は次の送信で重複して届く（クライアントは上書きするだけ）
+                synchronized (this) {
+                    resync = false;
+                }
+                changes = resync(since);
+            } else {
+                changes = new TodoDTO.ChangesResponse(upserted, deletedIds, todoSyncService.highWaterMark(), false);
+            }
+            
+            synchronized (this) {
+                heartbeatDue = false;
+                lastEventId = changes.getHighWaterMark();
+            }
+            return SseEmitter.event().name("changes").id(changes.getHighWaterMark()).data(changes);
+        }
+        
+        // 解釈できない Last-Event-ID の場合は全件を送り直す
+        private TodoDTO.ChangesResponse resync(String since) {
+            try {
+                return todoSyncService.getChanges(userId, since);
+            } catch (IllegalArgumentException e) {
+                return todoSyncService.getChanges(userId, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.event.TodoChangedEvent;
+import com.example.todoapp.model.TodoTombstone;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.TodoTombstoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// 差分同期（GET /api/todos/changes）
+// since 以降に作成・更新されたTodoと削除されたTodoのIDを返す
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TodoSyncService {
+    
+    private final TodoRepository todoRepository;
+    private final TodoTombstoneRepository todoTombstoneRepository;
+    
+    // 削除記録の保持期間（これより古い since には全件取得を求める）
+    @Value("${todo.sync.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+    
+    // 実行中のトランザクションが後からコミットされても取りこぼさないよう、
+    // 次回の since をこの幅だけ巻き戻して返す（重複分はクライアント側で上書きされる）
+    @Value("${todo.sync.safety-window:PT5S}")
+    private Duration safetyWindow;
+    
+    @Transactional(readOnly = true)
+    public TodoDTO.ChangesResponse getChanges(Long userId, String since) {
+        LocalDateTime now = LocalDateTime.now();
+        String highWaterMark = highWaterMark(now);
+        LocalDateTime sinceTime = parseSince(since);
+        
+        // since がない、または削除記録が残っていない古さの場合は全件を返す
+        if (sinceTime == null || sinceTime.isBefore(now.minus(tombstoneRetention))) {
+            List<TodoDTO.Response> todos = todoRepository.findResponses(userId, null, null, null, null, TodoDTO.Field.ALL);
+            return new TodoDTO.ChangesResponse(todos, List.of(), highWaterMark, true);
+        }
+        
+        List<TodoDTO.Response> upserted = todoRepository.findResponsesUpdatedSince(userId, sinceTime);
+        List<Long> deletedIds = todoTombstoneRepository.findDeletedIdsSince(userId, sinceTime);
+        return new TodoDTO.ChangesResponse(upserted, deletedIds, highWaterMark, false);
+    }
+    
+    // 現時点の highWaterMark（次回の since に指定する値）
+    public String highWaterMark() {
+        return highWaterMark(LocalDateTime.now());
+    }
+    
+    private String highWaterMark(LocalDateTime now) {
+        return now.minus(safetyWindow).toString();
+    }
+    
+    // 削除と同じトランザクションで削除記録を残す
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        if (event.deletedIds().isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<TodoTombstone> tombstones = event.deletedIds().stream()
+                .map(id -> new TodoTombstone(null, id, event.userId(), now))
+                .toList();
+        todoTombstoneRepository.saveAll(tombstones);
+    }
+    
+    // 保持期間を過ぎた削除記録を定期的に削除する
+    @Scheduled(fixedDelayString = "${todo.sync.compaction-interval:PT1H}")
+    @Transactional
+    public void compactTombstones() {
+        int deleted = todoTombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+        if (deleted > 0) {
+            log.info("削除記録をコンパクションしました: {}件", deleted);
+        }
+    }
+    
+    // since は ISO-8601 の日時（前回レスポンスの highWaterMark）またはエポックミリ秒
+    private static LocalDateTime parseSince(String since) {
+        if (since == null || since.isEmpty()) {
+            return null;
+        }
+        try {
+            if (since.chars().allMatch(Character::isDigit)) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(since)), ZoneId.systemDefault());
+            }
+            return LocalDateTime.parse(since);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("since の指定が不正です: " + since);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.event.TodoChangedEvent;
+import com.example.todoapp.event.TodoVersionChangedEvent;
+import com.example.todoapp.repository.TodoVersionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+// ユーザーごとのTodo変更バージョンを管理する（ETag・条件付きGET用）
+// 現在のバージョンはメモリ上のカウンターから返し、書き込みのコミット後にそのバージョンまで進める
+// DBの user_todo_versions は再起動後や他インスタンスのための正の値で、メモリにないユーザーの場合だけ読む
+@Service
+public class TodoVersionService {
+    
+    private final TodoVersionRepository todoVersionRepository;
+    private final TransactionTemplate primaryRead;
+    // ユーザーID → バージョン（ConcurrentHashMap のビン単位でロックされるため、ユーザー間で競合しない）
+    private final Cache<Long, Long> versions;
+    
+    public TodoVersionService(
+            TodoVersionRepository todoVersionRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${todo.version.max-users:100000}") long maxUsers,
+            @Value("${todo.version.refresh-interval:PT0S}") Duration refreshInterval
+    ) {
+        this.todoVersionRepository = todoVersionRepository;
+        // 読み取り専用にするとレプリカに振り分けられ、自分の書き込みより古いバージョンで 304 を返してしまうため、プライマリから読む
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maxUsers);
+        // 他のインスタンスの書き込みは、この間隔でDBから読み直すまで反映されない
+        if (!refreshInterval.isZero()) {
+            builder.expireAfterWrite(refreshInterval);
+        }
+        this.versions = builder.build();
+    }
+    
+    // 現在のバージョンを取得（todos テーブルは参照しない）
+    public long currentVersion(Long userId) {
+        Long version = versions.getIfPresent(userId);
+        if (version != null) {
+            return version;
+        }
+        // DBの読み込みはキャッシュのロックの外で行い、その間にコミットされた書き込みのバージョンより戻さない
+        long loaded = primaryRead.execute(status -> todoVersionRepository.findVersion(userId).orElse(0L));
+        return versions.asMap().merge(userId, loaded, Math::max);
+    }
+    
+    // 書き込みと同じトランザクション内でバージョンを進め、進めた後のバージョンを TodoVersionChangedEvent として発行する
+    // （一覧キャッシュがコミット後にどのバージョンの一覧へ差分を反映するか判断できるように）
+    @EventListener
+    public TodoVersionChangedEvent onTodoChanged(TodoChangedEvent event) {
+        if (event.isEmpty()) {
+            return null;
+        }
+        todoVersionRepository.increment(event.userId());
+        long version = todoVersionRepository.findVersion(event.userId()).orElseThrow();
+        return new TodoVersionChangedEvent(event, version);
+    }
+    
+    // コミット後にメモリ上のカウンターを書き込んだバージョンまで進める（ロールバックした書き込みは反映しない）
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void afterTodoVersionChanged(TodoVersionChangedEvent event) {
+        versions.asMap().merge(event.userId(), event.version(), Math::max);
+    }
+}
@@ -0,0 +1,8 @@
+-- replica-local プロファイルのレプリカ用（接続のたびに実行される）
+-- プライマリの各テーブルを読み取り専用のリンクテーブルとして参照し、レプリケーション済みのレプリカの代わりにする
+CREATE LINKED TABLE IF NOT EXISTS users('org.h2.Driver', 'jdbc:h2:mem:primary', 'sa', '', 'public', 'users') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS todos('org.h2.Driver', 'jdbc:h2:mem:primary', 'sa', '', 'public', 'todos') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS todo_tombstones('org.h2.Driver', 'jdbc:h2:mem:primary', 'sa', '', 'public', 'todo_tombstones') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS user_todo_versions('org.h2.Driver', 'jdbc:h2:mem:primary', 'sa', '', 'public', 'user_todo_versions') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS user_todo_stats('org.h2.Driver', 'jdbc:h2:mem:primary', 'sa', '', 'public', 'user_todo_stats') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS revoked_tokens('org.h2.Driver', 'jdbc:h2:mem:primary', 'sa', '', 'public', 'revoked_tokens') READONLY;
@@ -0,0 +1,78 @@
+package com.example.todoapp.cache;
+
+import com.example.todoapp.dto.TodoDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CaffeineTodoListCacheTest {
+    
+    private static final Long USER_ID = 1L;
+    
+    private final CaffeineTodoListCache cache = new CaffeineTodoListCache(DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+    
+    // 格納した一覧は読み込んだレスポンスのコピーで、変更できない
+    @Test
+    void storesImmutableCopies() {
+        TodoDTO.Response loaded = todo(1, "a");
+        List<TodoDTO.Response> todos = cache.get(USER_ID, 1, id -> List.of(loaded));
+        
+        loaded.setTitle("changed");
+        assertThat(todos.get(0).getTitle()).isEqualTo("a");
+        assertThatThrownBy(() -> todos.get(0).setTitle("b")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(cache.getIfPresent(USER_ID, 1).byId().get(1L)).isSameAs(todos.get(0));
+    }
+    
+    // 読み込みはキャッシュのロックの外で行われ、読み込み中に格納された新しいバージョンの一覧を上書きしない
+    @Test
+    void loadDoesNotReplaceNewerEntryStoredMeanwhile() {
+        List<TodoDTO.Response> result = cache.get(USER_ID, 1, id -> {
+            cache.get(USER_ID, 2, other -> List.of(todo(1, "new")));
+            return List.of(todo(1, "old"));
+        });
+        
+        assertThat(result).extracting(TodoDTO.Response::getTitle).containsExactly("new");
+        assertThat(cache.getIfPresent(USER_ID, 2)).isNotNull();
+    }
+    
+    // 要求したバージョンより古い一覧は使わずに読み込み直す
+    @Test
+    void olderEntryIsReloaded() {
+        cache.get(USER_ID, 1, id -> List.of(todo(1, "v1")));
+        
+        assertThat(cache.getIfPresent(USER_ID, 2)).isNull();
+        List<TodoDTO.Response> result = cache.get(USER_ID, 2, id -> List.of(todo(1, "v2")));
+        assertThat(result).extracting(TodoDTO.Response::getTitle).containsExactly("v2");
+    }
+    
+    // 直前のバージョンの一覧にだけ差分を適用し、間のバージョンが抜けている場合は破棄する
+    @Test
+    void updateAppliesOnlyToPreviousVersion() {
+        cache.get(USER_ID, 1, id -> List.of(todo(1, "a")));
+        
+        cache.update(USER_ID, 2, todos -> append(todos, todo(2, "b")));
+        assertThat(cache.getIfPresent(USER_ID, 2).todos()).extracting(TodoDTO.Response::getId).containsExactly(1L, 2L);
+        assertThat(cache.getIfPresent(USER_ID, 2).byId()).containsKeys(1L, 2L);
+        
+        cache.update(USER_ID, 4, todos -> append(todos, todo(3, "c")));
+        assertThat(cache.getIfPresent(USER_ID, 0)).isNull();
+    }
+    
+    private static List<TodoDTO.Response> append(List<TodoDTO.Response> todos, TodoDTO.Response todo) {
+        List<TodoDTO.Response> result = new ArrayList<>(todos);
+        result.add(todo);
+        return result;
+    }
+    
+    private static TodoDTO.Response todo(long id, String title) {
+        LocalDateTime now = LocalDateTime.now();
+        return new TodoDTO.Response(id, title, null, false, now, now);
+    }
+}
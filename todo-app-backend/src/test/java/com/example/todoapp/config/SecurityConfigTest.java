@@ -0,0 +1,47 @@
+package com.example.todoapp.config;
+
+import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 管理用ポートを分けない場合（APIと同じポート）のアクチュエーターの認可
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecurityConfigTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Test
+    void healthIsOpenWithoutToken() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void prometheusIsDeniedOnApiPortEvenWithValidToken() throws Exception {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        String token = authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"))
+                .getToken();
+        
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        // 同じトークンでAPIは使える
+        mockMvc.perform(get("/api/todos").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+}
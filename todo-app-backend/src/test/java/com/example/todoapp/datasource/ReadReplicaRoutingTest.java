@@ -0,0 +1,106 @@
+package com.example.todoapp.datasource;
+
+import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.service.AuthService;
+import com.example.todoapp.service.TodoService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// replica-local プロファイル（プライマリ primary・レプリカ replica の別々のH2）で、アプリケーションの設定どおりに振り分けられるか
+@SpringBootTest
+@ActiveProfiles({"test", "replica-local"})
+class ReadReplicaRoutingTest {
+    
+    @Autowired
+    private DatabaseProbe probe;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private TodoService todoService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void readOnlyTransactionsReadFromReplica() {
+        ReplicaRoutingDataSourceTest.authenticate(register());
+        
+        assertThat(probe.readOnly()).isEqualToIgnoringCase("replica");
+        assertThat(probe.readWrite()).isEqualToIgnoringCase("primary");
+    }
+    
+    // Todoを書き込んだユーザーの読み取りは pin-window の間プライマリに固定され、他のユーザーはレプリカのまま
+    @Test
+    void readsAfterOwnWriteStayOnPrimary() {
+        Long writer = register();
+        Long other = register();
+        ReplicaRoutingDataSourceTest.authenticate(writer);
+        todoService.createTodo(new TodoDTO.CreateRequest("todo", null, false), writer);
+        
+        assertThat(probe.readOnly()).isEqualToIgnoringCase("primary");
+        assertThat(todoService.getAllTodos(writer)).extracting(TodoDTO.Response::getTitle).containsExactly("todo");
+        
+        ReplicaRoutingDataSourceTest.authenticate(other);
+        assertThat(probe.readOnly()).isEqualToIgnoringCase("replica");
+    }
+    
+    private Long register() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        return userRepository.findByUsername(username).orElseThrow().getId();
+    }
+    
+    @TestConfiguration
+    static class ProbeConfig {
+        
+        @Bean
+        DatabaseProbe databaseProbe(EntityManager entityManager) {
+            return new DatabaseProbe(entityManager);
+        }
+    }
+    
+    // トランザクションの属性ごとに、接続先のDB名を読む
+    static class DatabaseProbe {
+        
+        private final EntityManager entityManager;
+        
+        DatabaseProbe(EntityManager entityManager) {
+            this.entityManager = entityManager;
+        }
+        
+        @Transactional(readOnly = true)
+        public String readOnly() {
+            return database();
+        }
+        
+        @Transactional
+        public String readWrite() {
+            return database();
+        }
+        
+        private String database() {
+            return (String) entityManager.createNativeQuery("select database()").getSingleResult();
+        }
+    }
+}
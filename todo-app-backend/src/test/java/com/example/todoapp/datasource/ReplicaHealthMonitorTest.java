@@ -0,0 +1,98 @@
+package com.example.todoapp.datasource;
+
+import com.example.todoapp.event.TodoChangedEvent;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaHealthMonitorTest {
+    
+    private final DataSource replica = ReplicaRoutingDataSourceTest.h2("health-replica");
+    private final JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+    private ReplicaRoutingDataSourceTest.Routing routing;
+    private ReadReplicaProperties properties;
+    private ReplicaHealthMonitor monitor;
+    
+    @BeforeEach
+    void setUp() {
+        // レプリケーション遅延（秒）をテーブルの値で変えられるようにする
+        replicaJdbc.execute("create table if not exists replication_lag (seconds double)");
+        replicaJdbc.update("delete from replication_lag");
+        replicaJdbc.update("insert into replication_lag values (0)");
+        
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        replicas.put("replica-2", unreachable());
+        routing = new ReplicaRoutingDataSourceTest.Routing(replicas, Duration.ofSeconds(10));
+        
+        properties = new ReadReplicaProperties();
+        properties.setLagQuery("select seconds from replication_lag");
+        properties.setMaxLag(Duration.ofSeconds(2));
+        monitor = new ReplicaHealthMonitor(routing.dataSource, properties);
+    }
+    
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    // 接続できないレプリカは外し、遅延が max-lag 以内のレプリカだけに振り分ける
+    @Test
+    void removesUnreachableReplica() {
+        monitor.checkReplicas();
+        
+        assertThat(routing.dataSource.getReplicas())
+                .extracting(ReplicaRoutingDataSource.Replica::isHealthy)
+                .containsExactly(true, false);
+        for (int i = 0; i < 3; i++) {
+            assertThat(routing.database(true)).isEqualTo("HEALTH-REPLICA");
+        }
+    }
+    
+    // 遅延が max-lag を超えたり、レプリケーションが止まっている（NULL）場合は外し、戻れば振り分け対象に戻す
+    @Test
+    void removesLaggingReplicaUntilItCatchesUp() {
+        replicaJdbc.update("update replication_lag set seconds = 5");
+        monitor.checkReplicas();
+        assertThat(routing.dataSource.getReplicas().get(0).isHealthy()).isFalse();
+        assertThat(routing.database(true)).isEqualTo("ROUTING-PRIMARY");
+        
+        replicaJdbc.update("update replication_lag set seconds = null");
+        monitor.checkReplicas();
+        assertThat(routing.dataSource.getReplicas().get(0).isHealthy()).isFalse();
+        
+        replicaJdbc.update("update replication_lag set seconds = 1.5");
+        monitor.checkReplicas();
+        assertThat(routing.dataSource.getReplicas().get(0).isHealthy()).isTrue();
+        assertThat(routing.database(true)).isEqualTo("HEALTH-REPLICA");
+    }
+    
+    // Todoを書き込んだユーザーの直後の読み取りはプライマリ
+    @Test
+    void readsAfterWriteStayOnPrimary() {
+        monitor.checkReplicas();
+        ReplicaRoutingDataSourceTest.authenticate(7L);
+        assertThat(routing.database(true)).isEqualTo("HEALTH-REPLICA");
+        
+        monitor.onTodoChanged(TodoChangedEvent.deleted(7L, 1L));
+        
+        assertThat(routing.database(true)).isEqualTo("ROUTING-PRIMARY");
+    }
+    
+    private static DataSource unreachable() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:health-missing;IFEXISTS=TRUE");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.todoapp.datasource;
+
+import com.example.todoapp.security.UserPrincipal;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// プライマリとレプリカを別々のH2のインメモリDBにして、どちらで実行されたかを DATABASE() で確認する
+class ReplicaRoutingDataSourceTest {
+    
+    private static final DataSource PRIMARY = h2("routing-primary");
+    private static final DataSource REPLICA_1 = h2("routing-replica-1");
+    private static final DataSource REPLICA_2 = h2("routing-replica-2");
+    
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    // 読み取り専用トランザクションはレプリカ、書き込みとトランザクション外はプライマリ
+    @Test
+    void routesReadOnlyTransactionsToReplica() {
+        Routing routing = new Routing(Map.of("replica-1", REPLICA_1), Duration.ofSeconds(10));
+        
+        assertThat(routing.database(true)).isEqualTo("ROUTING-REPLICA-1");
+        assertThat(routing.database(false)).isEqualTo("ROUTING-PRIMARY");
+        assertThat(routing.jdbc.queryForObject("select database()", String.class)).isEqualTo("ROUTING-PRIMARY");
+    }
+    
+    // 書き込んだユーザーの読み取りは固定期間の間だけプライマリ、他のユーザーはレプリカ
+    @Test
+    void pinsWritingUserToPrimaryForWindow() throws InterruptedException {
+        Routing routing = new Routing(Map.of("replica-1", REPLICA_1), Duration.ofMillis(300));
+        routing.dataSource.pinToPrimary(1L);
+        
+        authenticate(1L);
+        assertThat(routing.database(true)).isEqualTo("ROUTING-PRIMARY");
+        authenticate(2L);
+        assertThat(routing.database(true)).isEqualTo("ROUTING-REPLICA-1");
+        
+        Thread.sleep(500);
+        authenticate(1L);
+        assertThat(routing.database(true)).isEqualTo("ROUTING-REPLICA-1");
+    }
+    
+    // 異常なレプリカは飛ばし、すべて異常ならプライマリから読む
+    @Test
+    void skipsUnhealthyReplicasAndFallsBackToPrimary() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", REPLICA_1);
+        replicas.put("replica-2", REPLICA_2);
+        Routing routing = new Routing(replicas, Duration.ofSeconds(10));
+        
+        assertThat(routing.database(true)).isEqualTo("ROUTING-REPLICA-1");
+        assertThat(routing.database(true)).isEqualTo("ROUTING-REPLICA-2");
+        
+        routing.dataSource.getReplicas().get(0).setHealthy(false);
+        for (int i = 0; i < 3; i++) {
+            assertThat(routing.database(true)).isEqualTo("ROUTING-REPLICA-2");
+        }
+        
+        routing.dataSource.getReplicas().get(1).setHealthy(false);
+        assertThat(routing.database(true)).isEqualTo("ROUTING-PRIMARY");
+    }
+    
+    static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+    
+    static void authenticate(Long userId) {
+        UserPrincipal user = UserPrincipal.of(userId, "user" + userId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.authorities()));
+    }
+    
+    // アプリケーションと同じく LazyConnectionDataSourceProxy で包み、トランザクションの属性が確定してから振り分ける
+    static final class Routing {
+        
+        final ReplicaRoutingDataSource dataSource;
+        final JdbcTemplate jdbc;
+        private final DataSourceTransactionManager transactionManager;
+        
+        Routing(Map<String, DataSource> replicas, Duration pinWindow) {
+            dataSource = new ReplicaRoutingDataSource(PRIMARY, replicas, ReadReplicaProperties.LoadBalancing.ROUND_ROBIN, pinWindow);
+            dataSource.afterPropertiesSet();
+            DataSource lazy = new LazyConnectionDataSourceProxy(dataSource);
+            jdbc = new JdbcTemplate(lazy);
+            transactionManager = new DataSourceTransactionManager(lazy);
+        }
+        
+        // @Transactional(readOnly = ...) と同じ属性のトランザクションで接続先のDB名を読む
+        String database(boolean readOnly) {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(readOnly);
+            return transaction.execute(status -> jdbc.queryForObject("select database()", String.class));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.todoapp.instrumentation;
+
+import java.util.function.Supplier;
+
+// SQLの実行回数の予算をテストで固定するためのアサーション
+// 例: SqlBudget.expectAtMost(1, () -> todoService.toggleComplete(id, userId));
+// JDBCプロキシが有効（todo.sql.instrumentation=true）なアプリケーションコンテキストの中で使う
+public final class SqlBudget {
+    
+    private SqlBudget() {
+    }
+    
+    // 処理の中で実行されたSQLを集計する
+    public static SqlStats measure(Runnable action) {
+        try (SqlCapture capture = SqlCapture.begin()) {
+            action.run();
+            return capture.stats();
+        }
+    }
+    
+    public static <T> T expectAtMost(int maxStatements, Supplier<T> action) {
+        try (SqlCapture capture = SqlCapture.begin()) {
+            T result = action.get();
+            check(maxStatements, capture.stats());
+            return result;
+        }
+    }
+    
+    public static void expectAtMost(int maxStatements, Runnable action) {
+        check(maxStatements, measure(action));
+    }
+    
+    private static void check(int maxStatements, SqlStats stats) {
+        if (stats.getStatementCount() > maxStatements) {
+            throw new AssertionError("SQLの実行回数が予算(" + maxStatements + ")を超えました: " + stats.describe());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.todoapp.security;
+
+import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.model.User;
+import com.example.todoapp.repository.UserRepository;
+import com.example.todoapp.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ユーザー情報のキャッシュが、ユーザーの登録・変更後に古い認証情報を返さないこと
+@SpringBootTest
+@ActiveProfiles("test")
+class CachingUserDetailsServiceTest {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private CachingUserDetailsService cachingUserDetailsService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Test
+    void registerOverDeletedUsernameEvictsCachedUser() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        User deleted = (User) cachingUserDetailsService.loadUserByUsername(username);
+        userRepository.delete(deleted);
+        
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.net", "password456"));
+        
+        User current = (User) cachingUserDetailsService.loadUserByUsername(username);
+        assertThat(current.getId()).isNotEqualTo(deleted.getId());
+        assertThat(current.getEmail()).isEqualTo(username + "@example.net");
+    }
+    
+    @Test
+    void cachedUserIsReusedUntilChanged() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        
+        UserDetails first = cachingUserDetailsService.loadUserByUsername(username);
+        assertThat(cachingUserDetailsService.loadUserByUsername(username)).isSameAs(first);
+    }
+}
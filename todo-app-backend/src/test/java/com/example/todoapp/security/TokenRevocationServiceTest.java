@@ -0,0 +1,106 @@
+package com.example.todoapp.security;
+
+import com.example.todoapp.model.RevokedToken;
+import com.example.todoapp.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// トークンの失効（Bloomフィルターの拡張・他のノードの失効の取り込み・期限切れの削除）
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenRevocationServiceTest {
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    // 想定件数を超えて失効させても、作り直したフィルターで失効済みと判定されること
+    @Test
+    void growingPastCapacityKeepsEveryRevokedToken() {
+        TokenRevocationService service = newService(4);
+        List<String> tokenIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            VerifiedToken token = token(Instant.now().plus(1, ChronoUnit.HOURS));
+            service.revoke(token);
+            tokenIds.add(token.tokenId());
+        }
+        
+        assertThat(tokenIds).allMatch(service::isRevoked);
+        assertThat(service.isRevoked(UUID.randomUUID().toString())).isFalse();
+        assertThat(service.isRevoked(null)).isFalse();
+        assertThat(service.size()).isEqualTo(50);
+    }
+    
+    // 同じトークンを複数回失効させても記録は1件
+    @Test
+    void revokingTwiceIsHarmless() {
+        TokenRevocationService service = newService(100);
+        VerifiedToken token = token(Instant.now().plus(1, ChronoUnit.HOURS));
+        
+        service.revoke(token);
+        service.revoke(token);
+        
+        assertThat(service.isRevoked(token.tokenId())).isTrue();
+        assertThat(service.size()).isEqualTo(1);
+    }
+    
+    // 前回の取り込みより前の revoked_at で遅れてコミットされた失効も、safety-window の範囲なら取り込む
+    @Test
+    void pollPicksUpLateCommitsWithinSafetyWindow() {
+        TokenRevocationService service = newService(100);
+        service.load();
+        
+        RevokedToken late = save(LocalDateTime.now().plusHours(1), LocalDateTime.now().minusSeconds(3));
+        assertThat(service.isRevoked(late.getTokenId())).isFalse();
+        
+        service.poll();
+        assertThat(service.isRevoked(late.getTokenId())).isTrue();
+    }
+    
+    // 有効期限を過ぎた失効記録はDBとメモリから削除し、有効期限内のものは残す
+    @Test
+    void pruneDropsExpiredRecordsOnly() {
+        RevokedToken expired = save(LocalDateTime.now().minusMinutes(1), LocalDateTime.now());
+        RevokedToken live = save(LocalDateTime.now().plusHours(1), LocalDateTime.now());
+        tokenRevocationService.poll();
+        assertThat(tokenRevocationService.isRevoked(expired.getTokenId())).isTrue();
+        assertThat(tokenRevocationService.isRevoked(live.getTokenId())).isTrue();
+        
+        tokenRevocationService.prune();
+        
+        assertThat(tokenRevocationService.isRevoked(expired.getTokenId())).isFalse();
+        assertThat(tokenRevocationService.isRevoked(live.getTokenId())).isTrue();
+        assertThat(revokedTokenRepository.findById(expired.getId())).isEmpty();
+        assertThat(revokedTokenRepository.findById(live.getId())).isPresent();
+    }
+    
+    // 想定件数を小さくした、アプリケーションのものとは別のインスタンス（同じDBを使う）
+    private TokenRevocationService newService(long expectedInsertions) {
+        TokenRevocationService service = new TokenRevocationService(revokedTokenRepository, expectedInsertions, 0.01);
+        ReflectionTestUtils.setField(service, "safetyWindow", Duration.ofSeconds(5));
+        return service;
+    }
+    
+    private static VerifiedToken token(Instant expiresAt) {
+        return new VerifiedToken(UUID.randomUUID().toString(), 1L, "user", Instant.now(), expiresAt);
+    }
+    
+    private RevokedToken save(LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        return revokedTokenRepository.save(new RevokedToken(null, UUID.randomUUID().toString(), 1L, expiresAt, revokedAt));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.AuthDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 登録時の一意制約違反をクライアント向けのメッセージに変換すること（SQL文や値を返さない）
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Test
+    void duplicateUsernameAndEmailAreReported() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        
+        assertThatThrownBy(() -> authService.register(
+                new AuthDTO.RegisterRequest(username, username + "@example.net", "password123")))
+                .hasMessage("ユーザー名は既に使用されています");
+        assertThatThrownBy(() -> authService.register(
+                new AuthDTO.RegisterRequest(username + "-2", username + "@example.com", "password123")))
+                .hasMessage("メールアドレスは既に使用されています");
+    }
+    
+    @Test
+    void unrecognisedViolationDoesNotLeakSql() {
+        // users.email（100文字）に収まらない値
+        String email = "x".repeat(120) + "@example.com";
+        
+        assertThatThrownBy(() -> authService.register(
+                new AuthDTO.RegisterRequest("user-" + UUID.randomUUID().toString().substring(0, 8), email, "password123")))
+                .hasMessage("ユーザーを登録できませんでした");
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.model.Todo;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 一括操作（POST /api/todos/batch）の検証・所有者チェック・行ロック
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoBatchServiceTest {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private TodoService todoService;
+    
+    @Autowired
+    private TodoBatchService todoBatchService;
+    
+    @Autowired
+    private TodoStatsService todoStatsService;
+    
+    @Autowired
+    private TodoRepository todoRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private Long userId;
+    
+    @BeforeEach
+    void setUp() {
+        userId = registerUser();
+    }
+    
+    // 検証に失敗した操作だけを失敗にし、他の操作は適用する
+    @Test
+    void invalidOperationsFailIndividually() {
+        TodoDTO.Response todo = todoService.createTodo(new TodoDTO.CreateRequest("元のタイトル", null, false), userId);
+        
+        TodoDTO.BatchResponse response = todoBatchService.applyBatch(List.of(
+                operation("create", null, "新規", false),
+                operation("create", null, " ", false),
+                operation("update", todo.getId(), "x".repeat(256), null),
+                operation("archive", todo.getId(), null, null),
+                operation("toggle", todo.getId(), null, null)
+        ), userId);
+        
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(TodoDTO.BatchResult::getSuccess)
+                .containsExactly(true, false, false, false, true);
+        assertThat(response.getResults()).extracting(TodoDTO.BatchResult::getMessage).containsExactly(
+                null,
+                "タイトルは必須です",
+                "タイトルは255文字以内で入力してください",
+                "不明な操作です: archive",
+                null
+        );
+        
+        Todo stored = todoRepository.findById(todo.getId()).orElseThrow();
+        assertThat(stored.getTitle()).isEqualTo("元のタイトル");
+        assertThat(stored.getCompleted()).isTrue();
+        assertThat(response.getResults().get(0).getTodo().getId()).isNotNull();
+        assertThat(countTodos()).isEqualTo(2);
+    }
+    
+    // 他のユーザーのTodoは存在しないものとして扱い、変更しない
+    @Test
+    void otherUsersTodosAreNotFound() {
+        Long otherUserId = registerUser();
+        TodoDTO.Response other = todoService.createTodo(new TodoDTO.CreateRequest("他人のTodo", null, false), otherUserId);
+        
+        TodoDTO.BatchResponse response = todoBatchService.applyBatch(List.of(
+                operation("update", other.getId(), "書き換え", null),
+                operation("toggle", other.getId(), null, null),
+                operation("delete", other.getId(), null, null)
+        ), userId);
+        
+        assertThat(response.getSucceeded()).isZero();
+        assertThat(response.getResults()).extracting(TodoDTO.BatchResult::getMessage).containsOnly("Todoが見つかりません");
+        Todo stored = todoRepository.findById(other.getId()).orElseThrow();
+        assertThat(stored.getTitle()).isEqualTo("他人のTodo");
+        assertThat(stored.getCompleted()).isFalse();
+        assertThat(todoStatsService.getStats(otherUserId).getTotal()).isEqualTo(1);
+    }
+    
+    @Test
+    void tooManyOperationsAreRejected() {
+        List<TodoDTO.BatchOperation> operations = Collections.nCopies(501, operation("create", null, "多すぎる", false));
+        
+        assertThatThrownBy(() -> todoBatchService.applyBatch(operations, userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("一度に実行できる操作は500件までです");
+        assertThat(countTodos()).isZero();
+    }
+    
+    // 件数は操作前後の状態の差で更新する（同じTodoへの複数操作・作成と削除の混在）
+    @Test
+    void statsFollowMixedOperations() {
+        TodoDTO.Response first = todoService.createTodo(new TodoDTO.CreateRequest("1", null, false), userId);
+        TodoDTO.Response second = todoService.createTodo(new TodoDTO.CreateRequest("2", null, true), userId);
+        
+        todoBatchService.applyBatch(List.of(
+                operation("toggle", first.getId(), null, null),
+                operation("update", first.getId(), null, false),
+                operation("toggle", first.getId(), null, null),
+                operation("delete", second.getId(), null, null),
+                operation("create", null, "3", true),
+                operation("create", null, "4", false)
+        ), userId);
+        
+        TodoDTO.StatsResponse stats = todoStatsService.getStats(userId);
+        assertThat(stats.getTotal()).isEqualTo(3);
+        assertThat(stats.getCompleted()).isEqualTo(2);
+    }
+    
+    // 対象のTodoはコミットまでロックされ、同じTodoへの同時の一括操作は先の操作のコミットを待つ
+    @Test
+    void concurrentBatchWaitsForRowLock() throws Exception {
+        TodoDTO.Response todo = todoService.createTodo(new TodoDTO.CreateRequest("同時操作", null, false), userId);
+        List<TodoDTO.BatchOperation> toggle = List.of(operation("toggle", todo.getId(), null, null));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    todoBatchService.applyBatch(toggle, userId);
+                    locked.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        CompletableFuture<TodoDTO.BatchResponse> second =
+                CompletableFuture.supplyAsync(() -> todoBatchService.applyBatch(toggle, userId));
+        Thread.sleep(300);
+        assertThat(second).isNotDone();
+        
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertThat(second.get(5, TimeUnit.SECONDS).getResults().get(0).getTodo().getCompleted()).isFalse();
+        
+        assertThat(todoRepository.findById(todo.getId()).orElseThrow().getCompleted()).isFalse();
+        assertThat(todoStatsService.getStats(userId).getCompleted()).isZero();
+    }
+    
+    private Long registerUser() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        return userRepository.findByUsername(username).orElseThrow().getId();
+    }
+    
+    private long countTodos() {
+        return jdbcTemplate.queryForObject("select count(*) from todos where user_id = ?", Long.class, userId);
+    }
+    
+    private static TodoDTO.BatchOperation operation(String op, Long id, String title, Boolean completed) {
+        return new TodoDTO.BatchOperation(op, id, title, null, completed);
+    }
+}
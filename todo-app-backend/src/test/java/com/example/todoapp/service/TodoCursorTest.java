@@ -0,0 +1,51 @@
+package com.example.todoapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// キーセットページングのカーソルのエンコード・デコード
+class TodoCursorTest {
+    
+    @Test
+    void roundTripKeepsNanoseconds() {
+        TodoCursor cursor = new TodoCursor(LocalDateTime.of(2024, 1, 1, 10, 0, 5, 123_456_789), 42L);
+        
+        assertThat(TodoCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+    
+    // LocalDateTime.toString は秒が 0 の場合に秒を省略する（2024-01-01T10:00）
+    @Test
+    void roundTripWithoutSeconds() {
+        TodoCursor cursor = new TodoCursor(LocalDateTime.of(2024, 1, 1, 10, 0), Long.MAX_VALUE);
+        
+        assertThat(TodoCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+    
+    // クエリパラメーターにそのまま使えること
+    @Test
+    void encodedCursorIsUrlSafe() {
+        TodoCursor cursor = new TodoCursor(LocalDateTime.of(2024, 12, 31, 23, 59, 59, 999_999_999), 1L);
+        
+        assertThat(cursor.encode()).matches("[A-Za-z0-9_-]+");
+    }
+    
+    @Test
+    void malformedCursorsAreRejected() {
+        for (String token : new String[]{"", "!!!", encode("abc"), encode("2024-01-01T10:00,x"), encode("not-a-date,1")}) {
+            assertThatThrownBy(() -> TodoCursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("カーソルが不正です");
+        }
+    }
+    
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
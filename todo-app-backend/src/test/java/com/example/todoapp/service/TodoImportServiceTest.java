@@ -0,0 +1,191 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.exception.ImportBusyException;
+import com.example.todoapp.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+// 一括取り込み（POST /api/todos/import）の行ごとのエラー報告と、書き込みに失敗したバッチのロールバック
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoImportServiceTest {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private TodoImportService todoImportService;
+    
+    @Autowired
+    private TodoStatsService todoStatsService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}")
+    private String jdbcTimeZone;
+    
+    private Long userId;
+    
+    @BeforeEach
+    void setUp() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        userId = userRepository.findByUsername(username).orElseThrow().getId();
+    }
+    
+    // 不正な行は行番号とともに報告してスキップし、残りの行は取り込む
+    @Test
+    void invalidRowsAreReportedAndSkipped() throws IOException {
+        String json = """
+                [
+                  {"title": "買い物", "completed": true},
+                  {"description": "タイトルなし"},
+                  "文字列",
+                  {"title": "%s"},
+                  {"title": "掃除", "completed": "あとで"},
+                  {"title": "洗濯"}
+                ]
+                """.formatted("x".repeat(256));
+        
+        TodoDTO.ImportResponse response = importJson(todoImportService, json);
+        
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(4);
+        assertThat(response.getCompleted()).isTrue();
+        assertThat(response.getErrors()).extracting(TodoDTO.ImportError::getRow).containsExactly(2, 3, 4, 5);
+        assertThat(response.getErrors()).extracting(TodoDTO.ImportError::getMessage).containsExactly(
+                "タイトルは必須です",
+                "オブジェクトではありません",
+                "タイトルは255文字以内で入力してください",
+                "completed の値が不正です"
+        );
+        assertThat(titles()).containsExactlyInAnyOrder("買い物", "洗濯");
+        TodoDTO.StatsResponse stats = todoStatsService.getStats(userId);
+        assertThat(stats.getTotal()).isEqualTo(2);
+        assertThat(stats.getCompleted()).isEqualTo(1);
+    }
+    
+    // CSV の行番号はヘッダー行を除いたデータ行の番号
+    @Test
+    void csvRowsAreNumberedAfterHeader() throws IOException {
+        String csv = "title,description,completed\n買い物,牛乳,false\n,説明だけ,false\n掃除,,true\n";
+        
+        TodoDTO.ImportResponse response = todoImportService.importTodos(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "text/csv", null, userId);
+        
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(TodoDTO.ImportError::getRow).containsExactly(2);
+        assertThat(titles()).containsExactlyInAnyOrder("買い物", "掃除");
+    }
+    
+    // 構文エラーの行以降は読まず、それまでの正しい行は取り込む
+    @Test
+    void syntaxErrorStopsReadingButKeepsEarlierRows() throws IOException {
+        String ndjson = "{\"title\": \"1\"}\n{\"title\": \"2\"}\n{\"title\": \n{\"title\": \"4\"}\n";
+        
+        TodoDTO.ImportResponse response = todoImportService.importTodos(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "application/x-ndjson", null, userId);
+        
+        assertThat(response.getCompleted()).isFalse();
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getErrors()).hasSize(1);
+        assertThat(response.getErrors().get(0).getRow()).isEqualTo(3);
+        assertThat(titles()).containsExactlyInAnyOrder("1", "2");
+    }
+    
+    // 書き込みに失敗したバッチはロールバックし（件数も加算しない）、コミット済みのバッチは残す
+    // 検証を通さないバリデーターで、NOT NULL 制約に違反する行をDBまで届かせる
+    @Test
+    void failedBatchIsRolledBackAndStopsImport() throws IOException {
+        TodoImportService service = newService(mock(Validator.class), 2, 100, 1);
+        String json = """
+                [{"title": "1"}, {"title": "2"}, {"title": "3"}, {"description": "タイトルなし"}, {"title": "5"}]
+                """;
+        
+        TodoDTO.ImportResponse response = importJson(service, json);
+        
+        assertThat(response.getCompleted()).isFalse();
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(TodoDTO.ImportError::getRow).containsExactly(3);
+        assertThat(titles()).containsExactlyInAnyOrder("1", "2");
+        assertThat(todoStatsService.getStats(userId).getTotal()).isEqualTo(2);
+    }
+    
+    // max-rows を超えた行以降は取り込まない
+    @Test
+    void rowsBeyondMaxRowsAreNotImported() throws IOException {
+        TodoImportService service = newService(validator, 500, 3, 1);
+        
+        TodoDTO.ImportResponse response = importJson(service, "[{\"title\": \"1\"}, {\"title\": \"2\"}, {\"title\": \"3\"}, {\"title\": \"4\"}]");
+        
+        assertThat(response.getCompleted()).isFalse();
+        assertThat(response.getImported()).isEqualTo(3);
+        assertThat(response.getErrors()).extracting(TodoDTO.ImportError::getRow).containsExactly(4);
+    }
+    
+    @Test
+    void importIsRejectedWhenNoPermitIsAvailable() {
+        TodoImportService service = newService(validator, 500, 100, 0);
+        
+        assertThatThrownBy(() -> importJson(service, "[]")).isInstanceOf(ImportBusyException.class);
+    }
+    
+    @Test
+    void formatIsDetectedFromContentTypeThenFilename() {
+        assertThat(TodoImportService.Format.from("application/json; charset=UTF-8", "todos.csv")).isEqualTo(TodoImportService.Format.JSON);
+        assertThat(TodoImportService.Format.from("application/octet-stream", "todos.CSV")).isEqualTo(TodoImportService.Format.CSV);
+        assertThat(TodoImportService.Format.from(null, "todos.jsonl")).isEqualTo(TodoImportService.Format.JSON);
+        assertThatThrownBy(() -> TodoImportService.Format.from("application/octet-stream", "todos.xlsx"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private TodoImportService newService(Validator validator, int batchSize, int maxRows, int maxConcurrent) {
+        return new TodoImportService(jdbcTemplate, transactionManager, todoStatsService, objectMapper, validator,
+                eventPublisher, batchSize, maxRows, 10, maxConcurrent, jdbcTimeZone);
+    }
+    
+    private TodoDTO.ImportResponse importJson(TodoImportService service, String json) throws IOException {
+        return service.importTodos(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "application/json", null, userId);
+    }
+    
+    private List<String> titles() {
+        return jdbcTemplate.queryForList("select title from todos where user_id = ?", String.class, userId);
+    }
+}
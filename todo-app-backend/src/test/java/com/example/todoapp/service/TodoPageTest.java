@@ -0,0 +1,115 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// キーセットページング（GET /api/todos?cursor=...）のページ境界
+// created_at が同じTodoが続く場合も、id で順序が決まり重複・欠落しないこと
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoPageTest {
+    
+    private static final int PAGE_SIZE = 3;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private TodoService todoService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Long userId;
+    private List<Long> ids;
+    
+    @BeforeEach
+    void setUp() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        userId = userRepository.findByUsername(username).orElseThrow().getId();
+        ids = new ArrayList<>();
+    }
+    
+    // ページの境界が created_at の同じTodoの途中にある場合
+    @Test
+    void tiesOnCreatedAtAreOrderedById() {
+        create(10, false);
+        jdbcTemplate.update("update todos set created_at = ? where user_id = ?", LocalDateTime.of(2024, 1, 1, 10, 0), userId);
+        
+        assertThat(readAll(null)).isEqualTo(ids.stream().sorted(Comparator.reverseOrder()).toList());
+    }
+    
+    // 件数がページサイズのちょうど倍数の場合、最後のページで hasMore が false になる（空のページを返さない）
+    @Test
+    void exactMultipleOfPageSizeEndsWithoutEmptyPage() {
+        create(PAGE_SIZE * 3, false);
+        
+        List<TodoDTO.PageResponse<TodoDTO.Response>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            TodoDTO.PageResponse<TodoDTO.Response> page = todoService.getTodoPage(userId, cursor, PAGE_SIZE, null, TodoDTO.Field.ALL);
+            pages.add(page);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        assertThat(pages).hasSize(3);
+        assertThat(pages).allMatch(page -> page.getItems().size() == PAGE_SIZE);
+        assertThat(pages.get(2).getHasMore()).isFalse();
+    }
+    
+    // 絞り込み（completed）とカーソルを組み合わせても、条件に合うTodoだけを順に返す
+    @Test
+    void cursorRespectsCompletedFilter() {
+        create(4, true);
+        List<Long> completed = List.copyOf(ids);
+        create(5, false);
+        jdbcTemplate.update("update todos set created_at = ? where user_id = ?", LocalDateTime.of(2024, 1, 1, 10, 0), userId);
+        
+        assertThat(readAll(true)).isEqualTo(completed.stream().sorted(Comparator.reverseOrder()).toList());
+    }
+    
+    @Test
+    void emptyListHasNoCursor() {
+        TodoDTO.PageResponse<TodoDTO.Response> page = todoService.getTodoPage(userId, null, PAGE_SIZE, null, TodoDTO.Field.ALL);
+        
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.getHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+    
+    private void create(int count, boolean completed) {
+        for (int i = 0; i < count; i++) {
+            ids.add(todoService.createTodo(new TodoDTO.CreateRequest("todo " + ids.size(), null, completed), userId).getId());
+        }
+    }
+    
+    private List<Long> readAll(Boolean completed) {
+        List<Long> read = new ArrayList<>();
+        String cursor = null;
+        do {
+            TodoDTO.PageResponse<TodoDTO.Response> page = todoService.getTodoPage(userId, cursor, PAGE_SIZE, completed, TodoDTO.Field.ALL);
+            page.getItems().forEach(todo -> read.add(todo.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return read;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.event.TodoChangedEvent;
+import com.example.todoapp.event.TodoVersionChangedEvent;
+import com.example.todoapp.instrumentation.SqlBudget;
+import com.example.todoapp.model.Todo;
+import com.example.todoapp.repository.TodoRepository;
+import com.example.todoapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// プロセス内の検索インデックス（todo.search.type=memory）の差分反映と、古くなったインデックスの作り直し
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoSearchServiceTest {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private TodoService todoService;
+    
+    @Autowired
+    private TodoSearchService todoSearchService;
+    
+    @Autowired
+    private TodoVersionService todoVersionService;
+    
+    @Autowired
+    private TodoRepository todoRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private Long userId;
+    
+    @BeforeEach
+    void setUp() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        userId = userRepository.findByUsername(username).orElseThrow().getId();
+        todoService.createTodo(new TodoDTO.CreateRequest("会議の資料", "来週の会議", false), userId);
+    }
+    
+    // このインスタンスの書き込みはコミット後にインデックスへ反映され、検索でTodoを読み直さない
+    @Test
+    void localWritesArePatchedWithoutRebuilding() {
+        assertThat(search("会議").getTotal()).isEqualTo(1);
+        
+        todoService.createTodo(new TodoDTO.CreateRequest("会議室の予約", null, false), userId);
+        
+        TodoDTO.SearchResponse response = SqlBudget.expectAtMost(0, () -> search("会議"));
+        assertThat(response.getTotal()).isEqualTo(2);
+    }
+    
+    // 他のインスタンスの書き込み（イベントが届かない）は、バージョンが進んだ後の検索で作り直して反映する
+    @Test
+    void indexIsRebuiltWhenVersionMovesWithoutEvent() {
+        assertThat(search("会議").getTotal()).isEqualTo(1);
+        
+        Todo todo = new Todo();
+        todo.setTitle("会議の議事録");
+        todo.setUser(userRepository.getReferenceById(userId));
+        todoRepository.save(todo);
+        assertThat(search("会議").getTotal()).isEqualTo(1);
+        
+        long version = todoVersionService.currentVersion(userId);
+        todoVersionService.afterTodoVersionChanged(new TodoVersionChangedEvent(
+                new TodoChangedEvent(userId, List.of(), List.of(todo.getId())), version + 1));
+        
+        assertThat(search("会議").getTotal()).isEqualTo(2);
+    }
+    
+    private TodoDTO.SearchResponse search(String q) {
+        return todoSearchService.search(userId, q, null, null);
+    }
+}
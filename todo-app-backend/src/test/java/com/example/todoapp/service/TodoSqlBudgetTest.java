@@ -0,0 +1,157 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.cache.TodoListCache;
+import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.instrumentation.SqlBudget;
+import com.example.todoapp.instrumentation.SqlStats;
+import com.example.todoapp.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 主要な処理のSQL実行回数の予算（N+1 や不要な問い合わせが増えたら失敗させる）
+// 予算はリクエスト1回分の処理（コミット後のイベント処理を含む）で実行されるSQLの数
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoSqlBudgetTest {
+    
+    private static final int TODOS = 20;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private TodoService todoService;
+    
+    @Autowired
+    private TodoBatchService todoBatchService;
+    
+    @Autowired
+    private TodoVersionService todoVersionService;
+    
+    @Autowired
+    private TodoStatsService todoStatsService;
+    
+    @Autowired
+    private TodoListCache todoListCache;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private String username;
+    private Long userId;
+    private List<Long> todoIds;
+    
+    @BeforeEach
+    void setUp() {
+        username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        userId = userRepository.findByUsername(username).orElseThrow().getId();
+        todoIds = new ArrayList<>();
+        for (int i = 0; i < TODOS; i++) {
+            TodoDTO.CreateRequest request = new TodoDTO.CreateRequest("todo " + i, "description " + i, false);
+            todoIds.add(todoService.createTodo(request, userId).getId());
+        }
+    }
+    
+    // 一覧（GET /api/todos と同じく、バージョンを読んでから一覧を取得する）
+    // バージョンは書き込みのコミット後にメモリ上で進むため、キャッシュがなければ一覧の1回、キャッシュがあればSQLなし
+    @Test
+    void listReadsTodosOnceAndVersionFromMemory() {
+        todoListCache.evict(userId);
+        List<TodoDTO.Response> todos = SqlBudget.expectAtMost(1, this::list);
+        assertThat(todos).hasSize(TODOS);
+        
+        SqlBudget.expectAtMost(0, this::list);
+    }
+    
+    // 更新・読み直し・件数・バージョン（更新と読み取り）
+    @Test
+    void toggleStaysWithinBudget() {
+        TodoDTO.Response todo = SqlBudget.expectAtMost(5, () -> todoService.toggleComplete(todoIds.get(0), userId));
+        assertThat(todo.getCompleted()).isTrue();
+    }
+    
+    // 完了状態の変更は条件付きUPDATE・読み直し・件数・バージョン（更新と読み取り）で、変更前の状態を読まない
+    @Test
+    void updateCompletedDoesNotReadBeforeWriting() {
+        TodoDTO.UpdateRequest request = new TodoDTO.UpdateRequest(null, null, true);
+        SqlStats stats = SqlBudget.measure(() -> todoService.updateTodo(todoIds.get(0), request, userId));
+        assertThat(stats.getStatementCount()).as(stats.describe()).isLessThanOrEqualTo(5);
+        assertThat(stats.getShapes().keySet()).noneMatch(sql -> sql.toLowerCase().contains("for update"));
+        
+        // すでに完了済みの場合は件数を変えない
+        todoService.updateTodo(todoIds.get(0), request, userId);
+        assertThat(todoStatsService.getStats(userId).getCompleted()).isEqualTo(1);
+    }
+    
+    // キャッシュにあるTodoの削除は todos へのDELETE 1文・件数・削除記録・バージョン（更新と読み取り）
+    @Test
+    void deleteIssuesSingleDeleteWhenCached() {
+        list();
+        SqlStats stats = SqlBudget.measure(() -> todoService.deleteTodo(todoIds.get(0), userId));
+        assertThat(stats.getStatementCount()).as(stats.describe()).isLessThanOrEqualTo(5);
+        assertThat(stats.getShapes().keySet())
+                .as(stats.describe())
+                .filteredOn(sql -> sql.contains(" todos "))
+                .singleElement()
+                .satisfies(sql -> assertThat(sql).startsWith("delete"));
+        assertThat(todoStatsService.getStats(userId).getTotal()).isEqualTo(TODOS - 1);
+    }
+    
+    // キャッシュがない場合も、削除できた条件から完了済み・今日作成の件数を差し引く
+    @Test
+    void deleteWithoutCacheKeepsStatsConsistent() {
+        todoService.toggleComplete(todoIds.get(1), userId);
+        todoListCache.evict(userId);
+        
+        todoService.deleteTodo(todoIds.get(1), userId);
+        
+        TodoDTO.StatsResponse stats = todoStatsService.getStats(userId);
+        assertThat(stats.getTotal()).isEqualTo(TODOS - 1);
+        assertThat(stats.getCompleted()).isZero();
+        assertThat(stats.getCreatedToday()).isEqualTo(TODOS - 1);
+        assertThatThrownBy(() -> todoService.deleteTodo(todoIds.get(1), userId))
+                .hasMessage("Todoが見つかりません");
+    }
+    
+    // 操作の件数によらず一定（対象の取得・UPDATEとINSERTはそれぞれJDBCバッチ・件数・バージョン）
+    @Test
+    void batchDoesNotIssueStatementsPerOperation() {
+        List<TodoDTO.BatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            operations.add(new TodoDTO.BatchOperation("toggle", todoIds.get(i), null, null, null));
+            operations.add(new TodoDTO.BatchOperation("create", null, "new " + i, null, null));
+        }
+        
+        SqlStats stats = SqlBudget.measure(() -> {
+            TodoDTO.BatchResponse response = todoBatchService.applyBatch(operations, userId);
+            assertThat(response.getFailed()).isZero();
+        });
+        assertThat(stats.getStatementCount()).as(stats.describe()).isLessThanOrEqualTo(6);
+        assertThat(stats.getMaxRepeatCount()).as(stats.describe()).isEqualTo(1);
+    }
+    
+    // ユーザーの検索1回だけ（BCryptの照合中はDBにアクセスしない）
+    @Test
+    void loginLooksUpUserOnce() {
+        AuthDTO.AuthResponse response = SqlBudget.expectAtMost(1,
+                () -> authService.login(new AuthDTO.LoginRequest(username, "password123")));
+        assertThat(response.getToken()).isNotBlank();
+    }
+    
+    private List<TodoDTO.Response> list() {
+        long version = todoVersionService.currentVersion(userId);
+        return todoService.getAllTodos(userId, TodoDTO.Field.ALL, version);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.todoapp.service;
+
+import com.example.todoapp.dto.AuthDTO;
+import com.example.todoapp.dto.TodoDTO;
+import com.example.todoapp.model.TodoTombstone;
+import com.example.todoapp.repository.TodoTombstoneRepository;
+import com.example.todoapp.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static java.time.temporal.ChronoUnit.MILLIS;
+
+// 差分同期（GET /api/todos/changes）の since の扱い・safety-window・削除記録
+@SpringBootTest
+@ActiveProfiles("test")
+class TodoSyncServiceTest {
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private TodoService todoService;
+    
+    @Autowired
+    private TodoSyncService todoSyncService;
+    
+    @Autowired
+    private TodoTombstoneRepository todoTombstoneRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private Long userId;
+    
+    @BeforeEach
+    void setUp() {
+        String username = "user-" + UUID.randomUUID().toString().substring(0, 8);
+        authService.register(new AuthDTO.RegisterRequest(username, username + "@example.com", "password123"));
+        userId = userRepository.findByUsername(username).orElseThrow().getId();
+    }
+    
+    // since がない場合は全件で、highWaterMark は現在時刻から safety-window（5秒）巻き戻した値
+    @Test
+    void withoutSinceReturnsEverythingAndRewoundHighWaterMark() {
+        create("a");
+        create("b");
+        
+        LocalDateTime before = LocalDateTime.now();
+        TodoDTO.ChangesResponse changes = todoSyncService.getChanges(userId, null);
+        
+        assertThat(changes.getFull()).isTrue();
+        assertThat(changes.getUpserted()).hasSize(2);
+        assertThat(LocalDateTime.parse(changes.getHighWaterMark())).isCloseTo(before.minusSeconds(5), within(1000, MILLIS));
+    }
+    
+    // 前回の同期より前の時刻で書き込み、同期の後にコミットされた変更（長いトランザクション）も次回の同期で届く
+    @Test
+    void lateCommitWithinSafetyWindowIsNotMissed() {
+        LocalDateTime syncedAt = LocalDateTime.now();
+        String since = todoSyncService.getChanges(userId, null).getHighWaterMark();
+        
+        Long id = create("late");
+        setUpdatedAt(id, syncedAt.minusSeconds(2));
+        
+        TodoDTO.ChangesResponse changes = todoSyncService.getChanges(userId, since);
+        assertThat(changes.getFull()).isFalse();
+        assertThat(changes.getUpserted()).extracting(TodoDTO.Response::getId).containsExactly(id);
+    }
+    
+    // since より前の変更は返さない
+    @Test
+    void onlyChangesAfterSinceAreReturned() {
+        Long old = create("old");
+        setUpdatedAt(old, LocalDateTime.now().minusHours(1));
+        Long recent = create("recent");
+        
+        TodoDTO.ChangesResponse changes = todoSyncService.getChanges(userId, LocalDateTime.now().minusMinutes(10).toString());
+        
+        assertThat(changes.getUpserted()).extracting(TodoDTO.Response::getId).containsExactly(recent);
+        assertThat(changes.getDeletedIds()).isEmpty();
+    }
+    
+    // 削除したTodoは削除記録（tombstone）から deletedIds として届く
+    @Test
+    void deletionsAreReportedFromTombstones() {
+        String since = LocalDateTime.now().minusSeconds(1).toString();
+        Long kept = create("kept");
+        Long deleted = create("deleted");
+        todoService.deleteTodo(deleted, userId);
+        
+        TodoDTO.ChangesResponse changes = todoSyncService.getChanges(userId, since);
+        
+        assertThat(changes.getUpserted()).extracting(TodoDTO.Response::getId).containsExactly(kept);
+        assertThat(changes.getDeletedIds()).containsExactly(deleted);
+    }
+    
+    // 削除記録の保持期間（30日）より古い since では削除を伝えられないため全件を返す
+    @Test
+    void sinceOlderThanRetentionFallsBackToFull() {
+        create("a");
+        
+        TodoDTO.ChangesResponse changes = todoSyncService.getChanges(userId, LocalDateTime.now().minusDays(31).toString());
+        
+        assertThat(changes.getFull()).isTrue();
+        assertThat(changes.getUpserted()).hasSize(1);
+    }
+    
+    @Test
+    void sinceAcceptsEpochMillisAndRejectsGarbage() {
+        Long id = create("a");
+        long epochMillis = LocalDateTime.now().minusMinutes(1).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        
+        assertThat(todoSyncService.getChanges(userId, Long.toString(epochMillis)).getUpserted())
+                .extracting(TodoDTO.Response::getId).containsExactly(id);
+        assertThatThrownBy(() -> todoSyncService.getChanges(userId, "yesterday"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    // 保持期間を過ぎた削除記録だけをコンパクションで削除する
+    @Test
+    void compactionRemovesOnlyExpiredTombstones() {
+        TodoTombstone expired = todoTombstoneRepository.save(new TodoTombstone(null, -1L, userId, LocalDateTime.now().minusDays(31)));
+        TodoTombstone retained = todoTombstoneRepository.save(new TodoTombstone(null, -2L, userId, LocalDateTime.now().minusDays(1)));
+        
+        todoSyncService.compactTombstones();
+        
+        assertThat(todoTombstoneRepository.findById(expired.getId())).isEmpty();
+        assertThat(todoTombstoneRepository.findById(retained.getId())).isPresent();
+    }
+    
+    private Long create(String title) {
+        return todoService.createTodo(new TodoDTO.CreateRequest(title, null, false), userId).getId();
+    }
+    
+    // Hibernateと同じタイムゾーン（hibernate.jdbc.time_zone）で書き込むため、JPQLで更新する
+    private void setUpdatedAt(Long id, LocalDateTime updatedAt) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager
+                .createQuery("update Todo t set t.updatedAt = :updatedAt where t.id = :id")
+                .setParameter("updatedAt", updatedAt)
+                .setParameter("id", id)
+                .executeUpdate());
+    }
+}
@@ -59,6 +59,13 @@ export const authApi = {
     apiClient.post<AuthResponse>('/auth/register', data),
   
   logout: () => {
+    // サーバー側でトークンを失効させる（失敗してもローカルのログアウトは行う）
+    const token = localStorage.getItem('token')
+    if (token) {
+      apiClient
+        .post('/auth/logout', null, { headers: { Authorization: `Bearer ${token}` } })
+        .catch(() => {})
+    }
     localStorage.removeItem('token')
     localStorage.removeItem('user')
   }
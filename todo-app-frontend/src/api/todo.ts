@@ -9,10 +9,55 @@ export interface Todo {
   updatedAt?: string
 }
 
+export interface TodoStats {
+  total: number
+  completed: number
+  active: number
+  createdToday: number
+}
+
+// titleHighlight と snippet は HTML エスケープ済み（検索語を <mark> で囲んでいる）
+export interface TodoSearchHit {
+  todo: Todo
+  score: number
+  titleHighlight: string
+  snippet?: string
+}
+
+export interface TodoSearchResult {
+  items: TodoSearchHit[]
+  total: number
+  page: number
+  size: number
+  hasMore: boolean
+}
+
+export interface TodoImportResult {
+  imported: number
+  failed: number
+  completed: boolean
+  errors: { row: number; message: string }[]
+}
+
 export const todoApi = {
   getAll: () => 
     apiClient.get<Todo[]>('/todos'),
   
+  // 件数のみ（一覧を取得せずにバッジなどを表示する場合）
+  getStats: () => 
+    apiClient.get<TodoStats>('/todos/stats'),
+  
+  // 全文検索（関連度順、page は0始まり）
+  search: (q: string, page = 0, size = 20) => 
+    apiClient.get<TodoSearchResult>('/todos/search', { params: { q, page, size } }),
+  
+  // ファイル（JSON・NDJSON・CSV）からの一括取り込み
+  importFile: (file: File) => {
+    const form = new FormData()
+    form.append('file', file)
+    return apiClient.post<TodoImportResult>('/todos/import', form)
+  },
+  
   getById: (id: number) => 
     apiClient.get<Todo>(`/todos/${id}`),
   